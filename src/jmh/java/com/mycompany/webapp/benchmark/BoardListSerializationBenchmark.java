@@ -0,0 +1,67 @@
+package com.mycompany.webapp.benchmark;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.webapp.dto.Board;
+import com.mycompany.webapp.dto.Pager;
+
+//BoardController.list가 리턴하는 {"boards": [...], "pager": {...}} 의 JSON 변환
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BoardListSerializationBenchmark {
+	@Param({"10", "100"})
+	private int rowsPerPage;
+	
+	private ObjectMapper objectMapper;
+	private Map<String, Object> content;
+	
+	@Setup
+	public void setup() {
+		//스프링 부트 기본 설정과 같이 Date를 타임스탬프(숫자)로 변환
+		objectMapper = new ObjectMapper();
+		List<Board> boards = new ArrayList<>();
+		for(int i = 0; i < rowsPerPage; i++) {
+			Board board = new Board();
+			board.setBno(100000 - i);
+			board.setBtitle("게시물 제목 " + i);
+			board.setBwriter("user" + (i % 10));
+			board.setBdate(new Date());
+			board.setBhitcount(i * 7);
+			if(i % 3 == 0) {
+				board.setBattachoname("photo" + i + ".jpg");
+			}
+			boards.add(board);
+		}
+		content = new HashMap<>();
+		content.put("boards", boards);
+		content.put("pager", new Pager(rowsPerPage, 5, 100000, 1));
+	}
+	
+	@Benchmark
+	public byte[] serialize() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(content);
+	}
+}
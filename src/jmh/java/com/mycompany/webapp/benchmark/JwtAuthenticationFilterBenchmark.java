@@ -0,0 +1,101 @@
+package com.mycompany.webapp.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mycompany.webapp.dto.Member;
+import com.mycompany.webapp.security.AppUserDetails;
+import com.mycompany.webapp.security.AppUserDetailsService;
+import com.mycompany.webapp.security.JwtAuthenticationFilter;
+import com.mycompany.webapp.security.JwtProvider;
+import com.mycompany.webapp.security.MemberStatusCache;
+
+//요청마다 실행되는 JWT 인증 필터 (사용자 조회는 목 객체로 대체해서 DB 시간은 제외)
+//token=same: 같은 토큰으로 반복 요청 (JwtProvider의 검증 캐시 적중)
+//token=rotating: 검증 캐시 크기보다 많은 서로 다른 토큰을 돌아가며 요청 (항상 서명 검증과 파싱을 함)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+	//jwt.auth.mode
+	@Param({"db", "claims"})
+	private String authMode;
+	
+	@Param({"same", "rotating"})
+	private String token;
+	
+	private JwtAuthenticationFilter filter;
+	private MockHttpServletRequest[] requests;
+	private int index;
+	
+	@Setup
+	public void setup() {
+		JwtProvider jwtProvider = new JwtProvider(JwtProviderBenchmark.SECURITY_KEY);
+		
+		Member member = new Member();
+		member.setMid("user1");
+		member.setMpassword("{bcrypt}password");
+		member.setMenabled(true);
+		member.setMrole("ROLE_USER");
+		List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+		AppUserDetailsService userDetailsService = mock(AppUserDetailsService.class);
+		when(userDetailsService.loadUserByUsername(anyString())).thenReturn(new AppUserDetails(member, authorities));
+		MemberStatusCache memberStatusCache = mock(MemberStatusCache.class);
+		when(memberStatusCache.isEnabled(anyString())).thenReturn(true);
+		
+		filter = new JwtAuthenticationFilter();
+		ReflectionTestUtils.setField(filter, "jwtProvider", jwtProvider);
+		ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+		ReflectionTestUtils.setField(filter, "memberStatusCache", memberStatusCache);
+		ReflectionTestUtils.setField(filter, "authMode", authMode);
+		
+		//토큰마다 발급 시각이 달라지도록 subject를 바꿔서 생성 (사용자 조회는 목 객체이므로 결과는 같음)
+		requests = new MockHttpServletRequest["same".equals(token) ? 1 : 1 << 14];
+		for(int i = 0; i < requests.length; i++) {
+			requests[i] = new MockHttpServletRequest("GET", "/board/list");
+			requests[i].addHeader("Authorization", "Bearer " + jwtProvider.createAccessToken("user" + i, "ROLE_USER"));
+		}
+	}
+	
+	@Benchmark
+	public Authentication doFilter() throws ServletException, IOException {
+		MockHttpServletRequest request = requests[index];
+		index = (index + 1) & (requests.length - 1);
+		//OncePerRequestFilter가 요청 속성으로 중복 실행을 막으므로 속성을 지우고 실행
+		request.clearAttributes();
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		SecurityContextHolder.clearContext();
+		return authentication;
+	}
+}
@@ -0,0 +1,77 @@
+package com.mycompany.webapp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mycompany.webapp.security.JwtProvider;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+
+//로그인 시 토큰 생성, 요청마다 실행되는 토큰 검증
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtProviderBenchmark {
+	//application.properties의 jwt.security.key
+	static final String SECURITY_KEY = "com.mycompany.jsonwebtoken.kosacourse";
+	
+	private JwtProvider jwtProvider;
+	private String token;
+	
+	@Setup
+	public void setup() {
+		jwtProvider = new JwtProvider(SECURITY_KEY);
+		token = jwtProvider.createAccessToken("user1", "ROLE_USER");
+	}
+	
+	@Benchmark
+	public String createAccessToken() {
+		return jwtProvider.createAccessToken("user1", "ROLE_USER");
+	}
+	
+	//같은 토큰으로 반복 요청 (검증 캐시 적중)
+	@Benchmark
+	public Jws<Claims> validateTokenCached() {
+		return jwtProvider.validateToken(token);
+	}
+	
+	//캐시 크기(10000)보다 많은 서로 다른 토큰을 돌아가며 검증 (항상 서명 검증과 파싱을 함)
+	@Benchmark
+	public Jws<Claims> validateTokenUncached(UncachedState state) {
+		return jwtProvider.validateToken(state.next());
+	}
+	
+	@State(Scope.Thread)
+	public static class UncachedState {
+		private String[] tokens;
+		private int index;
+		
+		@Setup
+		public void setup(JwtProviderBenchmark benchmark) {
+			tokens = new String[1 << 14];
+			for(int i = 0; i < tokens.length; i++) {
+				tokens[i] = benchmark.jwtProvider.createAccessToken("user" + i, "ROLE_USER");
+			}
+		}
+		
+		String next() {
+			String token = tokens[index];
+			index = (index + 1) & (tokens.length - 1);
+			return token;
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package com.mycompany.webapp.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mycompany.webapp.dto.Pager;
+
+//목록 요청마다 실행되는 Pager 생성 (pageArray의 IntStream 할당 포함)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PagerBenchmark {
+	@Param({"10", "100"})
+	private int rowsPerPage;
+	
+	@Param({"1", "5000"})
+	private int pageNo;
+	
+	private int totalRows = 100000;
+	
+	@Benchmark
+	public Pager create() {
+		return new Pager(rowsPerPage, 5, totalRows, pageNo);
+	}
+}
@@ -0,0 +1,183 @@
+package com.mycompany.webapp.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.h2.tools.Server;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.webapp.BackEndSpringbootApplication;
+import com.mycompany.webapp.dto.Board;
+import com.mycompany.webapp.service.BoardService;
+
+//게시물 일괄 저장(JDBC 배치 + 번호 블록 할당)과 한 건씩 저장의 시간 비교
+//loadtest 프로파일로 서버를 띄우고 loadtest.batch.sizes 의 개수마다
+//- service: BoardService.insert를 한 건씩 반복 / BoardService.insertBatch 한 번 (HTTP 제외, DB 작업만)
+//- http: POST /board/create를 한 건씩 반복 / POST /board/batch 한 번
+//을 실행해서 걸린 시간과 초당 행수를 출력
+//내장 DB는 기본적으로 TCP 서버 모드로 바꿈 (메모리 모드는 SQL마다 네트워크 왕복이 없으므로 배치의 효과가 드러나지 않음)
+//실행: mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.mycompany.webapp.loadtest.BatchInsertTest
+//메모리 모드로 비교: ... -Dloadtest.batch.tcp=false
+public class BatchInsertTest {
+	//같은 개수를 반복하는 횟수 (첫 번째는 워밍업으로 보고 나머지의 최소값을 출력)
+	private static final int REPEAT = 3;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	private final String baseUrl;
+	private final String password;
+	private final BoardService boardService;
+
+	public static void main(String[] args) throws Exception {
+		setIfAbsent("loadtest.rows", "1000");
+		setIfAbsent("loadtest.attachments", "0");
+		setIfAbsent("loadtest.batch.sizes", "100,1000,5000");
+		Server tcpServer = null;
+		if(Boolean.parseBoolean(System.getProperty("loadtest.batch.tcp", "true"))) {
+			tcpServer = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+			setIfAbsent("db.url", "jdbc:h2:tcp://localhost:" + tcpServer.getPort() + "/mem:board;MODE=Oracle;DB_CLOSE_DELAY=-1");
+		}
+		SpringApplication application = new SpringApplication(BackEndSpringbootApplication.class);
+		application.setAdditionalProfiles("loadtest");
+		try (ConfigurableApplicationContext context = application.run(args)) {
+			Environment env = context.getEnvironment();
+			BatchInsertTest test = new BatchInsertTest(
+					"http://localhost:" + env.getProperty("local.server.port"),
+					env.getProperty("loadtest.password"),
+					context.getBean(BoardService.class));
+			System.out.println();
+			System.out.printf("DB: %s%n", env.getProperty("db.url"));
+			System.out.printf("%-8s %6s %12s %12s %12s %12s %8s%n",
+					"경로", "행수", "한 건씩(ms)", "행/초", "일괄(ms)", "행/초", "배율");
+			for(String size : env.getProperty("loadtest.batch.sizes").split(",")) {
+				test.run(Integer.parseInt(size.trim()));
+			}
+		} finally {
+			if(tcpServer != null) {
+				tcpServer.stop();
+			}
+		}
+		System.exit(0);
+	}
+
+	private static void setIfAbsent(String key, String value) {
+		if(System.getProperty(key) == null) {
+			System.setProperty(key, value);
+		}
+	}
+
+	public BatchInsertTest(String baseUrl, String password, BoardService boardService) {
+		this.baseUrl = baseUrl;
+		this.password = password;
+		this.boardService = boardService;
+	}
+
+	public void run(int size) throws Exception {
+		long servicePerRow = Long.MAX_VALUE;
+		long serviceBatch = Long.MAX_VALUE;
+		for(int i = 0; i < REPEAT; i++) {
+			long start = System.nanoTime();
+			for(Board board : boards(size)) {
+				board.setBwriter("user1");
+				boardService.insert(board);
+			}
+			long perRow = System.nanoTime() - start;
+			start = System.nanoTime();
+			boardService.insertBatch(boards(size), "user1");
+			long batch = System.nanoTime() - start;
+			if(i > 0) {
+				servicePerRow = Math.min(servicePerRow, perRow);
+				serviceBatch = Math.min(serviceBatch, batch);
+			}
+		}
+		print("service", size, servicePerRow, serviceBatch);
+
+		String token = login("user1");
+		long httpPerRow = Long.MAX_VALUE;
+		long httpBatch = Long.MAX_VALUE;
+		for(int i = 0; i < REPEAT; i++) {
+			long start = System.nanoTime();
+			for(Board board : boards(size)) {
+				check(send(form("/board/create", token, "btitle", board.getBtitle(), "bcontent", board.getBcontent())));
+			}
+			long perRow = System.nanoTime() - start;
+			start = System.nanoTime();
+			check(send(HttpRequest.newBuilder(URI.create(baseUrl + "/board/batch"))
+					.header("Authorization", "Bearer " + token)
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(boards(size))))
+					.build()));
+			long batch = System.nanoTime() - start;
+			if(i > 0) {
+				httpPerRow = Math.min(httpPerRow, perRow);
+				httpBatch = Math.min(httpBatch, batch);
+			}
+		}
+		print("http", size, httpPerRow, httpBatch);
+	}
+
+	private void print(String path, int size, long perRowNanos, long batchNanos) {
+		System.out.printf("%-8s %6d %12.1f %12.0f %12.1f %12.0f %7.1fx%n", path, size,
+				perRowNanos / 1e6, size / (perRowNanos / 1e9),
+				batchNanos / 1e6, size / (batchNanos / 1e9),
+				(double) perRowNanos / batchNanos);
+	}
+
+	private List<Board> boards(int size) {
+		List<Board> boards = new ArrayList<>(size);
+		for(int i = 0; i < size; i++) {
+			Board board = new Board();
+			board.setBtitle("일괄 저장 " + i);
+			board.setBcontent("batch insert test " + i);
+			boards.add(board);
+		}
+		return boards;
+	}
+
+	private HttpRequest form(String path, String token, String... params) {
+		StringBuilder body = new StringBuilder();
+		for(int i = 0; i < params.length; i += 2) {
+			if(body.length() > 0) {
+				body.append('&');
+			}
+			body.append(params[i]).append('=').append(URLEncoder.encode(params[i + 1], StandardCharsets.UTF_8));
+		}
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+		if(token != null) {
+			builder.header("Authorization", "Bearer " + token);
+		}
+		return builder.build();
+	}
+
+	private HttpResponse<String> send(HttpRequest request) throws Exception {
+		return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private void check(HttpResponse<String> response) {
+		if(response.statusCode() != 200) {
+			throw new IllegalStateException(response.request().uri() + " " + response.statusCode() + " " + response.body());
+		}
+	}
+
+	private String login(String mid) throws Exception {
+		HttpResponse<String> response = send(form("/member/login", null, "mid", mid, "mpassword", password));
+		JsonNode json = objectMapper.readTree(response.body());
+		if(!"success".equals(json.path("result").asText())) {
+			throw new IllegalStateException("로그인 실패: " + mid + " " + response.statusCode() + " " + response.body());
+		}
+		return json.get("accessToken").asText();
+	}
+}
@@ -0,0 +1,53 @@
+package com.mycompany.webapp.loadtest;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.mycompany.webapp.dao.LatencyHistogram;
+import com.mycompany.webapp.dao.SqlStats;
+
+//요청 하나가 커넥션 풀에서 커넥션을 기다린 시간을 엔드포인트별로 기록 (인증 필터의 회원 조회 포함)
+//비동기 요청(로그인)은 요청 스레드에서 기다린 시간만 기록됨
+@Component
+@Profile("loadtest")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DbWaitFilter extends OncePerRequestFilter {
+	private static final Map<String, LatencyHistogram> WAITS = new ConcurrentHashMap<>();
+	
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		long before = SqlStats.threadWaitNanos();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			long wait = SqlStats.threadWaitNanos() - before;
+			WAITS.computeIfAbsent(endpoint(request), key -> new LatencyHistogram()).record(wait);
+		}
+	}
+	
+	//  /board/read/12 -> /board/read/{bno}
+	static String endpoint(HttpServletRequest request) {
+		return request.getMethod() + " " + request.getRequestURI().replaceAll("/\\d+$", "/{bno}");
+	}
+	
+	static Map<String, LatencyHistogram> getWaits() {
+		return WAITS;
+	}
+	
+	static void reset() {
+		WAITS.clear();
+	}
+}
@@ -0,0 +1,12 @@
+package com.mycompany.webapp.loadtest;
+
+import java.sql.Blob;
+import java.sql.SQLException;
+
+//H2에 없는 Oracle 함수 (schema.sql에서 create alias로 등록)
+public class H2Functions {
+	//dbms_lob.getlength
+	public static Long getLength(Blob blob) throws SQLException {
+		return blob == null ? null : blob.length();
+	}
+}
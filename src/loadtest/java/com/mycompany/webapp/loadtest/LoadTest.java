@@ -0,0 +1,254 @@
+package com.mycompany.webapp.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.webapp.BackEndSpringbootApplication;
+import com.mycompany.webapp.dao.LatencyHistogram;
+
+//부하 테스트
+//1. loadtest 프로파일로 서버 시작 (내장 H2, 시드 데이터 생성 - LoadTestSeeder)
+//2. 스레드마다 회원 한 명으로 로그인해서 JWT를 받음
+//3. loadtest.warmup 초 동안 워밍업, loadtest.duration 초 동안 loadtest.mix 비율로 요청
+//4. 엔드포인트별 처리량, 지연 시간 분포, 커넥션 풀 대기 시간 출력
+//실행: mvn -Ploadtest test-compile exec:exec
+public class LoadTest {
+	//엔드포인트별 측정 결과
+	private static class Result {
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+		private final LongAdder errors = new LongAdder();
+	}
+	
+	private static final String LIST = "GET /board/list";
+	private static final String READ = "GET /board/read/{bno}";
+	private static final String BATTACH = "GET /board/battach/{bno}";
+	private static final String CREATE = "POST /board/create";
+	private static final String LOGIN = "POST /member/login";
+	
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	private final String baseUrl;
+	private final int rows;
+	private final int attachments;
+	private final int users;
+	private final String password;
+	//비율에 따라 요청을 고르기 위한 누적 가중치
+	private final String[] operations;
+	private final int[] cumulativeWeights;
+	
+	private Map<String, Result> results = new ConcurrentHashMap<>();
+	
+	public static void main(String[] args) throws Exception {
+		SpringApplication application = new SpringApplication(BackEndSpringbootApplication.class);
+		application.setAdditionalProfiles("loadtest");
+		try (ConfigurableApplicationContext context = application.run(args)) {
+			Environment env = context.getEnvironment();
+			LoadTest loadTest = new LoadTest(
+					"http://localhost:" + env.getProperty("local.server.port"),
+					env.getProperty("loadtest.rows", Integer.class),
+					env.getProperty("loadtest.attachments", Integer.class),
+					env.getProperty("loadtest.users", Integer.class),
+					env.getProperty("loadtest.password"),
+					env.getProperty("loadtest.mix", "list:50,read:30,battach:10,create:5,login:5"));
+			int threads = env.getProperty("loadtest.threads", Integer.class, 16);
+			int warmup = env.getProperty("loadtest.warmup", Integer.class, 10);
+			int duration = env.getProperty("loadtest.duration", Integer.class, 30);
+			loadTest.run(threads, warmup, duration);
+		}
+		//스케줄러 등 남은 스레드가 있어도 종료
+		System.exit(0);
+	}
+	
+	public LoadTest(String baseUrl, int rows, int attachments, int users, String password, String mix) {
+		this.baseUrl = baseUrl;
+		this.rows = rows;
+		this.attachments = Math.min(attachments, rows);
+		this.users = users;
+		this.password = password;
+		//list:50,read:30,... (첨부가 없으면 battach 제외)
+		List<String> names = new ArrayList<>();
+		List<Integer> weights = new ArrayList<>();
+		int total = 0;
+		for(String entry : mix.split(",")) {
+			String[] pair = entry.trim().split(":");
+			int weight = Integer.parseInt(pair[1].trim());
+			if(weight <= 0 || ("battach".equals(pair[0].trim()) && this.attachments == 0)) {
+				continue;
+			}
+			total += weight;
+			names.add(pair[0].trim());
+			weights.add(total);
+		}
+		operations = names.toArray(new String[0]);
+		cumulativeWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+	}
+	
+	public void run(int threads, int warmupSeconds, int durationSeconds) throws Exception {
+		//스레드마다 회원 한 명씩 로그인
+		String[] tokens = new String[threads];
+		for(int i = 0; i < threads; i++) {
+			tokens[i] = login("user" + (i % users + 1));
+		}
+		System.out.println("워밍업 " + warmupSeconds + "초 ...");
+		runPhase(tokens, warmupSeconds);
+		//워밍업 결과는 버림
+		results = new ConcurrentHashMap<>();
+		DbWaitFilter.reset();
+		System.out.println("측정 " + durationSeconds + "초 (스레드 " + threads + "개) ...");
+		long start = System.nanoTime();
+		runPhase(tokens, durationSeconds);
+		double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+		printReport(elapsedSeconds);
+	}
+	
+	private void runPhase(String[] tokens, int seconds) throws InterruptedException {
+		long end = System.nanoTime() + seconds * 1_000_000_000L;
+		List<Thread> workers = new ArrayList<>();
+		for(int i = 0; i < tokens.length; i++) {
+			String mid = "user" + (i % users + 1);
+			String token = tokens[i];
+			Thread worker = new Thread(() -> {
+				while(System.nanoTime() < end) {
+					execute(next(), mid, token);
+				}
+			}, "loadtest-" + i);
+			worker.start();
+			workers.add(worker);
+		}
+		for(Thread worker : workers) {
+			worker.join();
+		}
+	}
+	
+	private String next() {
+		int value = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		for(int i = 0; i < cumulativeWeights.length; i++) {
+			if(value < cumulativeWeights[i]) {
+				return operations[i];
+			}
+		}
+		return operations[operations.length - 1];
+	}
+	
+	private void execute(String operation, String mid, String token) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		switch(operation) {
+			case "list":
+				//대부분 앞쪽 페이지를 봄
+				send(LIST, get("/board/list?pageNo=" + (random.nextInt(20) + 1), token));
+				break;
+			case "read":
+				send(READ, get("/board/read/" + (random.nextInt(rows) + 1), token));
+				break;
+			case "battach":
+				send(BATTACH, get("/board/battach/" + (random.nextInt(attachments) + 1), token));
+				break;
+			case "create":
+				send(CREATE, form("/board/create", token, 
+						"btitle", "부하 테스트 새 글", "bcontent", "load test " + random.nextLong()));
+				break;
+			case "login":
+				send(LOGIN, form("/member/login", null, "mid", mid, "mpassword", password));
+				break;
+			default:
+				throw new IllegalArgumentException("알 수 없는 요청: " + operation);
+		}
+	}
+	
+	private void send(String endpoint, HttpRequest request) {
+		Result result = results.computeIfAbsent(endpoint, key -> new Result());
+		long start = System.nanoTime();
+		try {
+			HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+			result.latency.record(System.nanoTime() - start);
+			result.statuses.computeIfAbsent(response.statusCode(), key -> new LongAdder()).increment();
+			if(response.statusCode() >= 400) {
+				result.errors.increment();
+			}
+		} catch(Exception e) {
+			result.latency.record(System.nanoTime() - start);
+			result.statuses.computeIfAbsent(-1, key -> new LongAdder()).increment();
+			result.errors.increment();
+		}
+	}
+	
+	private HttpRequest get(String path, String token) {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Authorization", "Bearer " + token)
+				.GET()
+				.build();
+	}
+	
+	private HttpRequest form(String path, String token, String... params) {
+		StringBuilder body = new StringBuilder();
+		for(int i = 0; i < params.length; i += 2) {
+			if(body.length() > 0) {
+				body.append('&');
+			}
+			body.append(params[i]).append('=').append(URLEncoder.encode(params[i + 1], StandardCharsets.UTF_8));
+		}
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+		if(token != null) {
+			builder.header("Authorization", "Bearer " + token);
+		}
+		return builder.build();
+	}
+	
+	private String login(String mid) throws Exception {
+		HttpResponse<String> response = httpClient.send(
+				form("/member/login", null, "mid", mid, "mpassword", password), HttpResponse.BodyHandlers.ofString());
+		JsonNode json = objectMapper.readTree(response.body());
+		if(!"success".equals(json.path("result").asText())) {
+			throw new IllegalStateException("로그인 실패: " + mid + " " + response.statusCode() + " " + response.body());
+		}
+		return json.get("accessToken").asText();
+	}
+	
+	private void printReport(double elapsedSeconds) {
+		Map<String, LatencyHistogram> waits = DbWaitFilter.getWaits();
+		String format = "%-24s %8s %7s %9s %9s %9s %9s %9s %9s | %9s %9s %9s  %s%n";
+		System.out.println();
+		System.out.printf(format, "endpoint", "requests", "errors", "req/s", 
+				"avg(ms)", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)", 
+				"wait avg", "wait p99", "wait max", "status");
+		long totalRequests = 0;
+		for(Map.Entry<String, Result> entry : new TreeMap<>(results).entrySet()) {
+			Result result = entry.getValue();
+			Map<String, Object> latency = result.latency.getStats();
+			LatencyHistogram waitHistogram = waits.get(entry.getKey());
+			Map<String, Object> wait = waitHistogram != null ? waitHistogram.getStats() : new LatencyHistogram().getStats();
+			Map<Integer, Long> statuses = new TreeMap<>();
+			result.statuses.forEach((status, count) -> statuses.put(status, count.sum()));
+			long requests = result.latency.getCount();
+			totalRequests += requests;
+			System.out.printf(format, entry.getKey(), requests, result.errors.sum(), 
+					String.format("%.1f", requests / elapsedSeconds), 
+					latency.get("avgMillis"), latency.get("p50Millis"), latency.get("p99Millis"), 
+					latency.get("p999Millis"), latency.get("maxMillis"),
+					wait.get("avgMillis"), wait.get("p99Millis"), wait.get("maxMillis"), statuses);
+		}
+		System.out.printf("%n전체: %d 요청, %.1f req/s (%.1f초)%n", totalRequests, totalRequests / elapsedSeconds, elapsedSeconds);
+		System.out.println("wait: 요청 하나가 커넥션 풀에서 커넥션을 기다린 시간의 합 (ms), status -1: 연결 오류");
+	}
+}
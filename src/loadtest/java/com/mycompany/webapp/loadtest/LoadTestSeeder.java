@@ -0,0 +1,113 @@
+package com.mycompany.webapp.loadtest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Random;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import com.mycompany.webapp.service.BoardService;
+
+import lombok.extern.slf4j.Slf4j;
+
+//부하 테스트용 회원과 게시물 생성 (검색 색인 등은 서버 시작이 끝난 뒤 만들어지므로 시드 데이터가 포함됨)
+//회원: user1 ~ userN (비밀번호 loadtest.password, ROLE_USER), admin (같은 비밀번호, ROLE_ADMIN - /monitor, /board/export 확인용)
+//게시물: bno 1 ~ loadtest.rows, 앞의 loadtest.attachments 개는 loadtest.attachment-size 바이트 첨부가 있음
+@Component
+@Profile("loadtest")
+@Slf4j
+public class LoadTestSeeder implements ApplicationRunner {
+	private static final int BATCH_SIZE = 1000;
+	
+	@Autowired
+	private DataSource dataSource;
+	
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+	
+	@Autowired
+	private BoardService boardService;
+	
+	@Value("${loadtest.rows}")
+	private int rows;
+	@Value("${loadtest.attachments}")
+	private int attachments;
+	@Value("${loadtest.attachment-size}")
+	private int attachmentSize;
+	@Value("${loadtest.users}")
+	private int users;
+	@Value("${loadtest.password}")
+	private String password;
+	
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		long start = System.currentTimeMillis();
+		try (Connection conn = dataSource.getConnection()) {
+			conn.setAutoCommit(false);
+			insertMembers(conn);
+			insertBoards(conn);
+			conn.commit();
+		}
+		//서비스를 거치지 않고 넣었으므로 메모리에 저장된 게시물 수를 DB와 맞춤
+		boardService.reconcileCount();
+		log.info("시드 데이터 생성: 회원 " + users + "명, 게시물 " + rows + "개(첨부 " + Math.min(attachments, rows) + "개), " 
+				+ (System.currentTimeMillis() - start) + "ms");
+	}
+	
+	private void insertMembers(Connection conn) throws Exception {
+		//모든 회원의 비밀번호가 같으므로 해시는 한 번만 계산
+		String encoded = passwordEncoder.encode(password);
+		String sql = "insert into member (mid, mname, mpassword, menabled, mrole, memail) values (?, ?, ?, 1, 'ROLE_USER', ?)";
+		try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+			for(int i = 1; i <= users; i++) {
+				pstmt.setString(1, "user" + i);
+				pstmt.setString(2, "부하테스트" + i);
+				pstmt.setString(3, encoded);
+				pstmt.setString(4, "user" + i + "@loadtest.local");
+				pstmt.addBatch();
+			}
+			pstmt.executeBatch();
+		}
+		sql = "insert into member (mid, mname, mpassword, menabled, mrole, memail) values ('admin', '관리자', ?, 1, 'ROLE_ADMIN', 'admin@loadtest.local')";
+		try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+			pstmt.setString(1, encoded);
+			pstmt.executeUpdate();
+		}
+	}
+	
+	private void insertBoards(Connection conn) throws Exception {
+		byte[] attachment = new byte[attachmentSize];
+		new Random(0).nextBytes(attachment);
+		String sql = "insert into board (bno, btitle, bcontent, mid, bdate, bhitcount, battachoname, battachtype, battachdata) "
+				+ "values (seq_bno.nextval, ?, ?, ?, sysdate, 0, ?, ?, ?)";
+		try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+			for(int i = 0; i < rows; i++) {
+				pstmt.setString(1, "부하 테스트 게시물 " + i);
+				pstmt.setString(2, "게시물 내용입니다. load test content " + i);
+				pstmt.setString(3, "user" + (i % users + 1));
+				if(i < attachments) {
+					pstmt.setString(4, "attach" + i + ".bin");
+					pstmt.setString(5, "application/octet-stream");
+					pstmt.setBytes(6, attachment);
+				} else {
+					pstmt.setNull(4, java.sql.Types.VARCHAR);
+					pstmt.setNull(5, java.sql.Types.VARCHAR);
+					pstmt.setNull(6, java.sql.Types.BLOB);
+				}
+				pstmt.addBatch();
+				if((i + 1) % BATCH_SIZE == 0) {
+					pstmt.executeBatch();
+				}
+			}
+			pstmt.executeBatch();
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package com.mycompany.webapp.loadtest;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.webapp.BackEndSpringbootApplication;
+
+//첨부 업로드의 힙 사용량 측정
+//loadtest 프로파일로 서버를 띄우고 loadtest.upload.size 바이트 첨부를 loadtest.upload.concurrency 개 동시에 /board/create로 올리면서
+//힙 사용량의 최대값(GC 전 쓰레기 포함)과 GC 직후 사용량의 최대값(실제로 살아 있던 메모리)을 출력
+//- 클라이언트도 같은 JVM에서 실행되므로 요청 바디는 파일에서 바로 보냄 (클라이언트가 첨부를 힙에 올리지 않음)
+//- 내장 DB는 파일 모드로 바꿈 (메모리 모드 H2는 BLOB을 힙에 보관하므로 서버의 메모리 사용량과 구분되지 않음)
+//- 업로드가 모두 동시에 컨트롤러까지 들어오도록 db.bulkhead 허가 수를 동시 업로드 수로 늘림 (DB 커넥션은 풀 크기만큼만 사용)
+//실행: mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.mycompany.webapp.loadtest.UploadHeapTest
+//저장소 변경: ... -Dbattach.store=file
+public class UploadHeapTest {
+	//힙 사용량을 확인하는 간격(밀리세컨)
+	private static final long SAMPLE_INTERVAL = 5;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	private final String baseUrl;
+	private final String password;
+
+	private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+	private final AtomicLong peakUsed = new AtomicLong();
+	private final AtomicLong peakAfterGc = new AtomicLong();
+	private volatile boolean sampling;
+
+	public static void main(String[] args) throws Exception {
+		Path dbDir = Files.createTempDirectory("upload-heap-db");
+		setIfAbsent("db.url", "jdbc:h2:file:" + dbDir.resolve("board") + ";MODE=Oracle");
+		setIfAbsent("loadtest.upload.concurrency", "50");
+		setIfAbsent("loadtest.upload.size", "10000000");
+		setIfAbsent("db.bulkhead.permits", System.getProperty("loadtest.upload.concurrency"));
+		SpringApplication application = new SpringApplication(BackEndSpringbootApplication.class);
+		application.setAdditionalProfiles("loadtest");
+		try (ConfigurableApplicationContext context = application.run(args)) {
+			Environment env = context.getEnvironment();
+			UploadHeapTest test = new UploadHeapTest(
+					"http://localhost:" + env.getProperty("local.server.port"),
+					env.getProperty("loadtest.password"));
+			test.run(env.getProperty("loadtest.upload.concurrency", Integer.class),
+					env.getProperty("loadtest.upload.size", Long.class),
+					env.getProperty("battach.store", "blob"));
+		} finally {
+			try (Stream<Path> files = Files.walk(dbDir)) {
+				files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+			}
+		}
+		System.exit(0);
+	}
+
+	private static void setIfAbsent(String key, String value) {
+		if(System.getProperty(key) == null) {
+			System.setProperty(key, value);
+		}
+	}
+
+	public UploadHeapTest(String baseUrl, String password) {
+		this.baseUrl = baseUrl;
+		this.password = password;
+	}
+
+	public void run(int concurrency, long size, String store) throws Exception {
+		String token = login("user1");
+		Path file = Files.createTempFile("upload-heap", ".bin");
+		try {
+			writeRandomFile(file, size);
+			//워밍업 (클래스 로딩, JIT, 커넥션 생성 등은 측정에서 제외)
+			upload(file, token);
+
+			gc();
+			long baseline = memoryMXBean.getHeapMemoryUsage().getUsed();
+			Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+			Thread sampler = startSampler(baseline);
+			CountDownLatch start = new CountDownLatch(1);
+			List<Thread> workers = new ArrayList<>();
+			for(int i = 0; i < concurrency; i++) {
+				Thread worker = new Thread(() -> {
+					int status;
+					try {
+						start.await();
+						status = upload(file, token);
+					} catch(Exception e) {
+						status = -1;
+					}
+					statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+				}, "upload-" + i);
+				worker.start();
+				workers.add(worker);
+			}
+			long startTime = System.nanoTime();
+			start.countDown();
+			for(Thread worker : workers) {
+				worker.join();
+			}
+			double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+			sampling = false;
+			sampler.join();
+			gc();
+			long after = memoryMXBean.getHeapMemoryUsage().getUsed();
+
+			Map<Integer, Long> statusCounts = new TreeMap<>();
+			statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+			System.out.println();
+			System.out.printf("첨부 %d바이트 x %d개 동시 업로드 (저장소 %s, 최대 힙 %s), %.1f초, status %s%n",
+					size, concurrency, store, mb(memoryMXBean.getHeapMemoryUsage().getMax()), elapsedSeconds, statusCounts);
+			System.out.printf("%-28s %s%n", "시작 전 힙 (GC 후)", mb(baseline));
+			System.out.printf("%-28s %s (+%s)%n", "최대 힙 사용량", mb(peakUsed.get()), mb(peakUsed.get() - baseline));
+			System.out.printf("%-28s %s (+%s, 업로드당 %s)%n", "GC 직후 힙 사용량의 최대값", mb(peakAfterGc.get()),
+					mb(Math.max(0, peakAfterGc.get() - baseline)), mb(Math.max(0, peakAfterGc.get() - baseline) / concurrency));
+			System.out.printf("%-28s %s%n", "종료 후 힙 (GC 후)", mb(after));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	//힙 사용량과 GC 직후 사용량(힙 메모리 풀별 collection usage의 합)의 최대값을 기록
+	private Thread startSampler(long baseline) {
+		peakUsed.set(baseline);
+		peakAfterGc.set(baseline);
+		List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if(pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()) {
+				heapPools.add(pool);
+			}
+		}
+		sampling = true;
+		Thread sampler = new Thread(() -> {
+			while(sampling) {
+				peakUsed.accumulateAndGet(memoryMXBean.getHeapMemoryUsage().getUsed(), Math::max);
+				long afterGc = 0;
+				for(MemoryPoolMXBean pool : heapPools) {
+					MemoryUsage usage = pool.getCollectionUsage();
+					if(usage != null) {
+						afterGc += usage.getUsed();
+					}
+				}
+				peakAfterGc.accumulateAndGet(afterGc, Math::max);
+				try {
+					Thread.sleep(SAMPLE_INTERVAL);
+				} catch(InterruptedException e) {
+					return;
+				}
+			}
+		}, "heap-sampler");
+		sampler.setDaemon(true);
+		sampler.start();
+		return sampler;
+	}
+
+	//multipart/form-data로 게시물 생성 (첨부는 파일에서 바로 보냄)
+	private int upload(Path file, String token) throws Exception {
+		String boundary = "----upload-heap-" + System.nanoTime();
+		String head = "--" + boundary + "\r\n"
+				+ "Content-Disposition: form-data; name=\"btitle\"\r\n\r\n업로드 메모리 측정\r\n"
+				+ "--" + boundary + "\r\n"
+				+ "Content-Disposition: form-data; name=\"bcontent\"\r\n\r\nupload heap test\r\n"
+				+ "--" + boundary + "\r\n"
+				+ "Content-Disposition: form-data; name=\"battach\"; filename=\"upload.bin\"\r\n"
+				+ "Content-Type: application/octet-stream\r\n\r\n";
+		String tail = "\r\n--" + boundary + "--\r\n";
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/board/create"))
+				.header("Authorization", "Bearer " + token)
+				.header("Content-Type", "multipart/form-data; boundary=" + boundary)
+				.POST(HttpRequest.BodyPublishers.concat(
+						HttpRequest.BodyPublishers.ofString(head, StandardCharsets.UTF_8),
+						HttpRequest.BodyPublishers.ofFile(file),
+						HttpRequest.BodyPublishers.ofString(tail, StandardCharsets.UTF_8)))
+				.build();
+		return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+	private String login(String mid) throws Exception {
+		String body = "mid=" + mid + "&mpassword=" + password;
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/member/login"))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+		HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+		JsonNode json = objectMapper.readTree(response.body());
+		if(!"success".equals(json.path("result").asText())) {
+			throw new IllegalStateException("로그인 실패: " + mid + " " + response.statusCode() + " " + response.body());
+		}
+		return json.get("accessToken").asText();
+	}
+
+	private void writeRandomFile(Path file, long size) throws Exception {
+		Random random = new Random(0);
+		byte[] buffer = new byte[65536];
+		try (OutputStream os = Files.newOutputStream(file)) {
+			for(long written = 0; written < size; written += buffer.length) {
+				random.nextBytes(buffer);
+				os.write(buffer, 0, (int) Math.min(buffer.length, size - written));
+			}
+		}
+	}
+
+	private void gc() throws InterruptedException {
+		for(int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(200);
+		}
+	}
+
+	private String mb(long bytes) {
+		return String.format("%.1fMB", bytes / 1024.0 / 1024.0);
+	}
+}
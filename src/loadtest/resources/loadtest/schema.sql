@@ -0,0 +1,30 @@
+-- 부하 테스트용 스키마 (H2 Oracle 호환 모드)
+-- H2에 없는 dbms_lob.getlength는 자바 함수로 대신함
+create schema if not exists dbms_lob;
+create alias if not exists dbms_lob.getlength for "com.mycompany.webapp.loadtest.H2Functions.getLength";
+
+create sequence seq_bno start with 1 increment by 1;
+
+create table member (
+   mid varchar2(50) primary key,
+   mname varchar2(50),
+   mpassword varchar2(100),
+   menabled number(1),
+   mrole varchar2(50),
+   memail varchar2(100)
+);
+
+create table board (
+   bno number primary key,
+   btitle varchar2(200) not null,
+   bcontent clob,
+   mid varchar2(50) references member(mid),
+   bdate date,
+   bhitcount number default 0,
+   battachoname varchar2(100),
+   battachsname varchar2(100),
+   battachtype varchar2(100),
+   battachdata blob,
+   battachstatus varchar2(40),
+   bversion number default 0 not null
+);
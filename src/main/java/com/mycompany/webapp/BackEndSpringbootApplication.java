@@ -2,8 +2,10 @@ package com.mycompany.webapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling //조회수 반영 등 주기적인 작업(@Scheduled)을 실행
 public class BackEndSpringbootApplication {
 
 	public static void main(String[] args) {
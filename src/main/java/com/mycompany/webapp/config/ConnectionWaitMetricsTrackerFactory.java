@@ -0,0 +1,19 @@
+package com.mycompany.webapp.config;
+
+import com.mycompany.webapp.dao.SqlStats;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+//Hikari 커넥션 대기 시간을 SqlStats에 기록
+public class ConnectionWaitMetricsTrackerFactory implements MetricsTrackerFactory {
+	@Override
+	public IMetricsTracker create(String poolName, PoolStats poolStats) {
+		return new IMetricsTracker() {
+			@Override
+			public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+				SqlStats.recordConnectionWait(poolName, elapsedAcquiredNanos);
+			}
+		};
+	}
+}
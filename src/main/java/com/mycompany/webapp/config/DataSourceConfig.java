@@ -1,9 +1,21 @@
 package com.mycompany.webapp.config;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
 import javax.sql.DataSource;
 
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -13,19 +25,96 @@ import lombok.extern.slf4j.Slf4j;
 @Configuration
 @Slf4j
 public class DataSourceConfig {
-   @Bean //클래스에 @Configuration @Bean 어노테이션이 있으면 자동으로 관리 객체를 실행 
-   public DataSource dataSource() { //메소드 이름인 dataSource가 관리객체 이름
+   //접속 정보와 풀 크기는 application.properties의 db.* 에서 읽음
+   @Value("${db.driver-class-name}")
+   private String driverClassName;
+   @Value("${db.url}")
+   private String url;
+   @Value("${db.username}")
+   private String username;
+   @Value("${db.password}")
+   private String password;
+   @Value("${db.pool.maximum-size:3}")
+   private int maximumPoolSize;
+   @Value("${db.pool.connection-timeout:30000}")
+   private long connectionTimeout;
+   
+   //읽기 전용 복제본(replica) 접속 정보 (db.replica.enabled=true 일 때만 사용)
+   @Value("${db.replica.url:}")
+   private String replicaUrl;
+   @Value("${db.replica.username:}")
+   private String replicaUsername;
+   @Value("${db.replica.password:}")
+   private String replicaPassword;
+   @Value("${db.replica.pool.maximum-size:3}")
+   private int replicaMaximumPoolSize;
+   @Value("${db.replica.sticky-window:5000}")
+   private long stickyWindow;
+   
+   //쓰기와 읽기를 모두 처리하는 커넥션 풀
+   @Bean(destroyMethod = "close")
+   public HikariDataSource primaryDataSource() {
+      return createPool("primary", url, username, password, maximumPoolSize);
+   }
+   
+   //읽기 전용 트랜잭션을 처리하는 커넥션 풀
+   @Bean(destroyMethod = "close")
+   @ConditionalOnProperty(name = "db.replica.enabled", havingValue = "true")
+   public HikariDataSource replicaDataSource() {
+      return createPool("replica", replicaUrl, replicaUsername, replicaPassword, replicaMaximumPoolSize);
+   }
+   
+   @Bean(destroyMethod = "") //클래스에 @Configuration @Bean 어노테이션이 있으면 자동으로 관리 객체를 실행 
+   @Primary
+   public DataSource dataSource( //메소드 이름인 dataSource가 관리객체 이름
+         @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+         @Qualifier("replicaDataSource") ObjectProvider<HikariDataSource> replicaDataSource) {
+      HikariDataSource replica = replicaDataSource.getIfAvailable();
+      //복제본이 없어도 커넥션은 첫 SQL 실행 시점에 얻음
+      //(트랜잭션 시작 시점에 얻으면 SqlStatsInterceptor가 구문별 커넥션 대기 시간을 기록할 수 없음)
+      if(replica == null) {
+         return new LazyConnectionDataSourceProxy(primaryDataSource);
+      }
+      //읽기 전용 트랜잭션은 replica, 나머지는 primary로 보냄
+      ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(stickyWindow);
+      Map<Object, Object> targetDataSources = new HashMap<>();
+      targetDataSources.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+      targetDataSources.put(ReplicaRoutingDataSource.REPLICA, replica);
+      routingDataSource.setTargetDataSources(targetDataSources);
+      routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+      routingDataSource.afterPropertiesSet();
+      //트랜잭션의 읽기 전용 여부가 정해진 뒤(첫 SQL 실행 시점)에 커넥션을 얻도록 지연
+      return new LazyConnectionDataSourceProxy(routingDataSource);
+   }
+   
+   //DB마다 문법이 다른 매핑 구문은 databaseId로 구분 (databaseId가 없는 구문은 모든 DB에서 사용)
+   //부하 테스트(loadtest 프로파일)의 내장 DB(H2)에는 connect by 등 Oracle 전용 문법이 없음
+   @Bean
+   public DatabaseIdProvider databaseIdProvider() {
+      Properties properties = new Properties();
+      properties.setProperty("Oracle", "oracle");
+      properties.setProperty("H2", "h2");
+      VendorDatabaseIdProvider databaseIdProvider = new VendorDatabaseIdProvider();
+      databaseIdProvider.setProperties(properties);
+      return databaseIdProvider;
+   }
+   
+   private HikariDataSource createPool(String poolName, String jdbcUrl, String user, String pass, int poolSize) {
       HikariConfig config = new HikariConfig();      
-      config.setDriverClassName("oracle.jdbc.OracleDriver");
-      config.setJdbcUrl("jdbc:oracle:thin:@kosa164.iptime.org:1521:orcl");      
+      config.setPoolName(poolName);
+      config.setDriverClassName(driverClassName);
+      config.setJdbcUrl(jdbcUrl);      
       //config.setDriverClassName("net.sf.log4jdbc.DriverSpy");
       //config.setJdbcUrl("jdbc:log4jdbc:oracle:thin:@localhost:1521:orcl");      
-      config.setUsername("user_spring");
-      config.setPassword("oracle");
-      config.setMaximumPoolSize(3);
+      config.setUsername(user);
+      config.setPassword(pass);
+      config.setMaximumPoolSize(poolSize);
+      config.setConnectionTimeout(connectionTimeout);
+      //커넥션 대기 시간 기록 (/monitor/sql)
+      config.setMetricsTrackerFactory(new ConnectionWaitMetricsTrackerFactory());
       HikariDataSource hikariDataSource = new HikariDataSource(config);
       return hikariDataSource; 
    }
    
    //src/main/resources/application.properties 에서도 설정 가능 -> @configuration과 @bean 어노테이션에 주석 달아줘야 그쪽에서 사용 가능
-}
\ No newline at end of file
+}
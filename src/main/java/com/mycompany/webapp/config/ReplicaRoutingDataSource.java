@@ -0,0 +1,77 @@
+package com.mycompany.webapp.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+//트랜잭션 종류에 따라 커넥션 풀을 선택하는 DataSource
+//@Transactional(readOnly = true) 트랜잭션은 replica, 그 외(쓰기, 트랜잭션 없음)는 primary를 사용
+//쓰기를 한 사용자는 복제 지연 때문에 자신이 쓴 내용을 못 보는 일이 없도록 sticky-window 동안 읽기도 primary를 사용
+//캐시에 넣거나 기준값으로 쓰는 읽기는 onPrimary로 실행해서 복제 지연된 내용이 오래 남지 않도록 함
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+	public static final String PRIMARY = "primary";
+	public static final String REPLICA = "replica";
+	
+	//정리를 시작하는 기준 크기
+	private static final int MAX_STICKY_USERS = 10000;
+	
+	private final long stickyWindow;
+	//사용자별로 primary에서 읽어야 하는 시간
+	private final ConcurrentHashMap<String, Long> stickyUntil = new ConcurrentHashMap<>();
+	//onPrimary 실행 중인 스레드
+	private static final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+	
+	public ReplicaRoutingDataSource(long stickyWindow) {
+		this.stickyWindow = stickyWindow;
+	}
+	
+	//task 안에서 얻는 커넥션은 읽기 전용 트랜잭션이어도 primary를 사용 (복제본이 없으면 아무 일도 하지 않음)
+	//커넥션은 첫 SQL 실행 시점에 얻으므로 트랜잭션 안에서 호출해도 됨
+	public static <T> T onPrimary(Supplier<T> task) {
+		Boolean previous = primaryOnly.get();
+		primaryOnly.set(Boolean.TRUE);
+		try {
+			return task.get();
+		} finally {
+			if(previous == null) {
+				primaryOnly.remove();
+			}
+		}
+	}
+	
+	@Override
+	protected Object determineCurrentLookupKey() {
+		String user = currentUser();
+		long now = System.currentTimeMillis();
+		if(TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			if(primaryOnly.get() != null) {
+				return PRIMARY;
+			}
+			//최근에 쓰기를 한 사용자는 primary에서 읽음
+			if(user != null) {
+				Long until = stickyUntil.get(user);
+				if(until != null && until > now) {
+					return PRIMARY;
+				}
+			}
+			return REPLICA;
+		}
+		//쓰기가 가능한 트랜잭션을 사용한 사용자를 기록
+		if(user != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+			if(stickyUntil.size() >= MAX_STICKY_USERS) {
+				stickyUntil.values().removeIf(until -> until <= now);
+			}
+			stickyUntil.put(user, now + stickyWindow);
+		}
+		return PRIMARY;
+	}
+	
+	private String currentUser() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		return (authentication != null) ? authentication.getName() : null;
+	}
+}
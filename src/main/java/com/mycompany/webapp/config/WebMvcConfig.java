@@ -0,0 +1,25 @@
+package com.mycompany.webapp.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.mycompany.webapp.interceptor.DbBulkheadInterceptor;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+	@Autowired
+	private DbBulkheadInterceptor dbBulkheadInterceptor;
+	
+	//인터셉터 등록
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		//DB를 사용하는 요청(게시판, 회원)의 동시 실행 수 제한
+		registry.addInterceptor(dbBulkheadInterceptor)
+				.addPathPatterns("/board/**", "/member/**")
+				//검색은 메모리 색인만, 변경 알림은 메모리의 이벤트만 사용하므로 제외
+				//조각 업로드의 시작/조회/조각 추가는 임시 파일만 사용하므로 제외 (느린 업로드가 DB 허용 수를 차지하지 않도록, 완료는 포함)
+				.excludePathPatterns("/board/search", "/board/events", "/board/upload", "/board/upload/*");
+	}
+}
@@ -1,14 +1,26 @@
 package com.mycompany.webapp.controller;
 
 import java.io.IOException;
-import java.io.OutputStream;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,14 +28,31 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.mycompany.webapp.dto.Battach;
 import com.mycompany.webapp.dto.Board;
 import com.mycompany.webapp.dto.Pager;
+import com.mycompany.webapp.search.BoardSearchIndex;
+import com.mycompany.webapp.service.BoardEventBroadcaster;
+import com.mycompany.webapp.service.BoardExporter;
+import com.mycompany.webapp.service.BoardListCache;
+import com.mycompany.webapp.service.BoardReadCache;
 import com.mycompany.webapp.service.BoardService;
+import com.mycompany.webapp.storage.BattachPipeline;
+import com.mycompany.webapp.storage.BattachStorage;
+import com.mycompany.webapp.storage.BattachStore;
+import com.mycompany.webapp.storage.BattachThumbnails;
+import com.mycompany.webapp.storage.BattachUploads;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -31,23 +60,151 @@ import lombok.extern.slf4j.Slf4j;
 @RestController //@Responsebody 어노테이션 없이도 리턴된 제이슨 객체(배열)가 응답 바디에 알아서 들어감
 @RequestMapping("/board")
 public class BoardController {
+	//목록에서 한 번에 가져올 수 있는 최대 행수
+	private static final int MAX_ROWS_PER_PAGE = 100;
+	//한 번에 저장할 수 있는 최대 게시물 수
+	private static final int MAX_BATCH_SIZE = 10000;
+	
 	@Autowired
 	private BoardService boardService;
 	
+	@Autowired
+	private BattachStorage battachStorage;
+	
+	@Autowired
+	private BoardListCache boardListCache;
+	
+	@Autowired
+	private BoardSearchIndex boardSearchIndex;
+	
+	@Autowired
+	private BattachThumbnails battachThumbnails;
+	
+	@Autowired
+	private BoardExporter boardExporter;
+	
+	@Autowired
+	private BoardEventBroadcaster boardEventBroadcaster;
+	
+	@Autowired
+	private BattachUploads battachUploads;
+	
+	@Autowired
+	private BattachPipeline battachPipeline;
+	
 	@GetMapping("/list")
-	public Map<String, Object> list(@RequestParam(defaultValue = "1") int pageNo) {
-		//페이징 대상이 되는 전체 행수 얻기
-		int totalRows = boardService.getCount();
-		//페이저 객체 생성
-		Pager pager = new Pager(10, 5, totalRows, pageNo);
-		//해당 페이지의 게시물 목록 가져오기
-		List<Board> list = boardService.getList(pager);
-		//여러 객체를(list, pager) 리턴하기 위해 Map 객체 생성
+	public ResponseEntity<byte[]> list(@RequestParam(defaultValue = "1") int pageNo, 
+			@RequestParam(defaultValue = "10") int rowsPerPage, WebRequest webRequest) {
+		//한 페이지에 가져올 수 있는 행수 제한
+		rowsPerPage = Math.max(1, Math.min(rowsPerPage, MAX_ROWS_PER_PAGE));
+		//캐시된 페이지가 있으면 DB를 조회하지 않음
+		BoardListCache.Page page = boardListCache.get(pageNo, rowsPerPage);
+		if(page == null) {
+			long generation = boardListCache.getGeneration();
+			//페이징 대상이 되는 전체 행수 얻기
+			int totalRows = boardService.getCount();
+			//페이저 객체 생성
+			Pager pager = new Pager(rowsPerPage, 5, totalRows, pageNo);
+			//해당 페이지의 게시물 목록 가져오기
+			List<Board> list = boardService.getList(pager);
+			//여러 객체를(list, pager) 리턴하기 위해 Map 객체 생성
+			Map<String, Object> map = new HashMap<>();
+			map.put("boards", list);
+			map.put("pager", pager);
+			page = boardListCache.put(pageNo, rowsPerPage, generation, map, list);
+		}
+		//클라이언트가 gzip을 받을 수 있으면 압축본으로 응답 (ETag도 압축본과 원본을 구분)
+		boolean useGzip = page.getGzip() != null && acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+		String etag = useGzip ? page.getEtag().replaceFirst("\"$", "-gzip\"") : page.getEtag();
+		//클라이언트가 가진 페이지(If-None-Match)와 같으면 바디 없이 304 응답
+		if(webRequest.checkNotModified(etag)) {
+			return null;
+		}
+		//캐시된 JSON 바이트를 그대로 응답 (객체 변환, 직렬화 없음)
+		ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+		if(page.getGzip() != null) {
+			builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		}
+		if(useGzip) {
+			builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		return builder.body(useGzip ? page.getGzip() : page.getJson()); //{ "boards": [...], "pager": {...} }
+		//각 객체는 제이슨 객체의 속성으로 들어가고, 객체의 속성들은 배열 형태로 들어간다
+	}
+	
+	//무한 스크롤을 위한 목록 (페이지 번호 대신 이전 응답의 next 토큰을 cursor로 넘김)
+	//http://localhost/board/list/cursor?cursor=xxxx&size=10
+	@GetMapping("/list/cursor")
+	public Map<String, Object> listByCursor(
+			@RequestParam(required = false) String cursor, 
+			@RequestParam(defaultValue = "10") int size) {
+		//한 번에 가져올 수 있는 행수 제한
+		size = Math.max(1, Math.min(size, MAX_ROWS_PER_PAGE));
+		//토큰에서 마지막으로 본 bno 얻기
+		Integer lastBno = (cursor == null || cursor.isEmpty()) ? null : decodeCursor(cursor);
+		List<Board> list = boardService.getListAfter(lastBno, size);
+		//다음 목록이 있을 수 있으면 마지막 bno로 다음 토큰 생성
+		String next = null;
+		if(list.size() == size) {
+			next = encodeCursor(list.get(list.size() - 1).getBno());
+		}
 		Map<String, Object> map = new HashMap<>();
 		map.put("boards", list);
-		map.put("pager", pager);
-		return map; //{ "boards": [...], "pager": {...} }
-		//각 객체는 제이슨 객체의 속성으로 들어가고, 객체의 속성들은 배열 형태로 들어간다
+		map.put("next", next);
+		return map; //{ "boards": [...], "next": "xxxx" }
+	}
+	
+	//게시물 추가/수정/삭제 알림 (Server-Sent Events, 목록을 주기적으로 다시 조회하는 대신 사용)
+	//event: board, data: {"bno":..., "operation":"INSERT|UPDATE|DELETE", "btitle":..., "bwriter":...}
+	//event: reset -> 놓친 알림이 있으므로 목록을 다시 조회
+	//재연결할 때 브라우저(EventSource)가 보내는 Last-Event-ID 이후의 알림부터 이어서 받음
+	@GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		SseEmitter emitter = boardEventBroadcaster.subscribe(lastEventId);
+		if(emitter == null) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "구독자가 너무 많습니다.");
+		}
+		return emitter;
+	}
+	
+	//제목/내용 검색 (메모리 역색인 사용, 관련도 순 게시물 번호 목록)
+	//http://localhost/board/search?q=검색어&op=and&size=20
+	@GetMapping("/search")
+	public Map<String, Object> search(
+			@RequestParam String q,
+			@RequestParam(defaultValue = "and") String op,
+			@RequestParam(defaultValue = "20") int size) {
+		size = Math.max(1, Math.min(size, MAX_ROWS_PER_PAGE));
+		int[] bnos = boardSearchIndex.search(q, !"or".equalsIgnoreCase(op), size);
+		Map<String, Object> map = new HashMap<>();
+		map.put("bnos", bnos);
+		return map; //{"bnos":[12, 7, ...]}
+	}
+	
+	//게시물 전체 내보내기 (분석, 백업용) - 첨부 데이터는 제외
+	//http://localhost/board/export?format=csv&from=2024-01-01&to=2024-12-31 (from, to는 bdate 날짜 범위, 생략 가능)
+	//한 번의 쿼리를 커서로 읽으면서 바로 응답에 쓰므로 게시물 수와 상관없이 메모리 사용량이 일정함
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@GetMapping("/export")
+	public void export(
+			@RequestParam(defaultValue = "ndjson") String format,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			HttpServletResponse response) throws IOException {
+		boolean csv = "csv".equalsIgnoreCase(format);
+		if(!csv && !"ndjson".equalsIgnoreCase(format)) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format은 ndjson 또는 csv 입니다.");
+		}
+		//to 날짜까지 포함
+		LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+		LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+		response.setCharacterEncoding("UTF-8");
+		response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+		response.setHeader("Content-Disposition", "attachment; filename=\"board." + (csv ? "csv" : "ndjson") + "\"");
+		long count = csv 
+				? boardExporter.exportCsv(fromTime, toTime, response.getOutputStream())
+				: boardExporter.exportNdjson(fromTime, toTime, response.getOutputStream());
+		log.info("게시물 내보내기: " + count + "건");
 	}
 	
 	//@Secured("ROLE_USER") //권한 이름(롤 이름)만 줄 수 있음 //현재 버전에서 사용 불가능
@@ -55,67 +212,99 @@ public class BoardController {
 	//@PostAuthorize //실행 후 권한 설정
 	@PostMapping("/create")
 	public Board create(Board board, Authentication authentication) {
-		//첨부가 넘어왔을 경우 처리
-		if(board.getBattach() != null && !board.getBattach().isEmpty()) {
-			MultipartFile mf = board.getBattach();
-			//파일 이름을 설정
-			board.setBattachoname(mf.getOriginalFilename());
-			//파일 종류를 설정
-			board.setBattachtype(mf.getContentType());
-			try {
-				//파일 데이터를 설정
-				board.setBattachdata(mf.getBytes());
-			} catch (IOException e) {
-			}
-		}
+		//첨부가 넘어왔을 경우 처리 (백그라운드 저장을 사용하면 첨부 정보만 저장하고 battachstatus는 PENDING)
+		BattachPipeline.Job job = prepareBattach(board);
 		//DB에 저장
 		board.setBwriter(authentication.getName());
-		boardService.insert(board);
-		//JSON 으로 변환되지 않는 필드는 null 처리 (multipartFile, binary data(byte[]))
+		try {
+			boardService.insert(board);
+		} catch(RuntimeException e) {
+			discardBattach(job);
+			throw e;
+		} finally {
+			closeBattachContent(board);
+		}
+		//커밋된 후 첨부 데이터 저장 시작
+		if(job != null) {
+			battachPipeline.submit(job, board.getBno());
+			board.setBattachstatus("PENDING");
+		}
+		//JSON 으로 변환되지 않는 필드는 null 처리 (multipartFile, binary data(stream))
 		board.setBattach(null);
-		board.setBattachdata(null);
+		board.setBattachcontent(null);
 		return board; //{"bno":1, "btitle":"제목", ...}
 	}
 	
+	//여러 게시물을 한 번에 저장 (마이그레이션, 봇 등) - 첨부는 지원하지 않음
+	//[{"btitle":"제목", "bcontent":"내용"}, ...]
+	@PreAuthorize("hasAuthority('ROLE_USER')")
+	@PostMapping("/batch")
+	public Map<String, Object> batch(@RequestBody List<Board> boards, Authentication authentication) {
+		if(boards.isEmpty() || boards.size() > MAX_BATCH_SIZE) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "한 번에 1~" + MAX_BATCH_SIZE + "개까지 저장할 수 있습니다.");
+		}
+		int count = boardService.insertBatch(boards, authentication.getName());
+		Map<String, Object> map = new HashMap<>();
+		map.put("result", "success");
+		map.put("count", count);
+		map.put("bnos", boards.stream().mapToInt(Board::getBno).toArray());
+		return map; //{"result":"success", "count":2, "bnos":[11, 12]}
+	}
+	
 //	@GetMapping("/read") //http://localhost/read?bno=5 -> 쿼리스트링 방식으로 bno를 받음
 //	public Board read(int bno) {
 //	}
 	
 	@PreAuthorize("hasAuthority('ROLE_USER')")
 	@GetMapping("/read/{bno}") //http://localhost/read/5 -> @PathVariable 방식으로 bno를 받음
-	public Board read(@PathVariable int bno) {
-		//bno에 해당하는 Board 객체 얻기
-		Board board = boardService.getBoard(bno);
-		//JSON 으로 변환되지 않는 필드는 null 처리 (multipartFile, binary data(byte[]))
-		board.setBattachdata(null);
-		return board;
+	public ResponseEntity<byte[]> read(@PathVariable int bno) {
+		//bno에 해당하는 게시물의 JSON 얻기 (첨부 데이터는 조회하지 않음, 캐시된 게시물은 직렬화하지 않음)
+		BoardReadCache.Json json = boardService.getBoardJson(bno);
+		if(json == null) {
+			return ResponseEntity.notFound().build();
+		}
+		//ETag는 게시물 버전 (수정할 때 If-Match로 보내면 그 사이 다른 수정이 있었는지 확인)
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.eTag(boardEtag(bno, json.getBversion()))
+				.body(json.getData());
 	}
 	
 	//@Secured("ROLE_USER") //권한 이름(롤 이름)만 줄 수 있음 //현재 버전에서 사용 불가능
 	@PreAuthorize("hasAuthority('ROLE_USER')")
 	@PutMapping("/update")
 	//put 방식 -> @RequestBody 사용해서 업데이트 -> json 객체로 리턴
-	public Board update(Board board) {
+	//If-Match: 읽을 때 받은 ETag -> 그 사이 다른 수정이 있었으면 수정하지 않고 412 응답
+	public ResponseEntity<Board> update(Board board, 
+			@RequestHeader(value = "If-Match", required = false) String ifMatch) {
+		Integer expectedVersion = parseIfMatch(ifMatch, board.getBno());
 		//첨부가 넘어왔을 경우 처리
-		if(board.getBattach() != null && !board.getBattach().isEmpty()) {
-			MultipartFile mf = board.getBattach();
-			//파일 이름을 설정
-			board.setBattachoname(mf.getOriginalFilename());
-			//파일 종류를 설정
-			board.setBattachtype(mf.getContentType());
-			try {
-				//파일 데이터를 설정
-				board.setBattachdata(mf.getBytes());
-			} catch (IOException e) {
+		BattachPipeline.Job job = prepareBattach(board);
+		//수정하고 수정된 내용의 Board 객체 얻기 (다시 조회하지 않고 조회수도 올리지 않음)
+		Board updated;
+		try {
+			updated = boardService.update(board, expectedVersion);
+		} catch(RuntimeException e) {
+			discardBattach(job);
+			throw e;
+		} finally {
+			closeBattachContent(board);
+		}
+		if(job != null) {
+			if(updated != null) {
+				battachPipeline.submit(job, board.getBno());
+			} else {
+				discardBattach(job);
+			}
+		}
+		if(updated == null) {
+			//If-Match가 있으면 게시물이 없거나 버전이 다른 경우
+			if(ifMatch != null) {
+				return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
 			}
+			return ResponseEntity.notFound().build();
 		}
-		//수정하기
-		boardService.update(board);
-		//수정된 내용의 Board 객체 얻기
-		board = boardService.getBoard(board.getBno());
-		//JSON으로 변환되지 않는 필드는 null 처리
-		board.setBattachdata(null);
-		return board;
+		return ResponseEntity.ok().eTag(boardEtag(updated.getBno(), updated.getBversion())).body(updated);
 	}
 	
 	//@Secured("ROLE_USER")  //권한 이름(롤 이름)만 줄 수 있음 //현재 버전에서 사용 불가능
@@ -125,27 +314,344 @@ public class BoardController {
 		boardService.delete(bno);
 	}
 	
+	//큰 첨부를 조각으로 나눠 올리기 (멀티파트 크기 제한 없이 battach.upload.max-size까지)
+	//1. POST /board/upload?battachoname=a.mp4&battachtype=video/mp4&size=123456789 -> {"uploadId":..., "offset":0, ...}
+	//2. PUT /board/upload/{uploadId}?offset=0 (Content-Type: application/octet-stream, X-Chunk-SHA256: 조각의 SHA-256)
+	//   -> {"offset": 다음 조각 위치}, 연결이 끊기면 GET /board/upload/{uploadId}의 offset부터 다시 보냄
+	//3. POST /board/upload/{uploadId}/complete?bno=5 -> 게시물(작성자만)의 첨부로 저장하고 {"bno":5, "battachoname":..., ...} 리턴
+	@PreAuthorize("hasAuthority('ROLE_USER')")
+	@PostMapping("/upload")
+	public Map<String, Object> initiateUpload(@RequestParam String battachoname, 
+			@RequestParam(required = false) String battachtype, 
+			@RequestParam long size, Authentication authentication) throws IOException {
+		BattachUploads.Upload upload = battachUploads.initiate(authentication.getName(), battachoname, battachtype, size);
+		Map<String, Object> map = uploadStatus(upload);
+		map.put("maxChunkSize", battachUploads.getMaxChunkSize());
+		return map;
+	}
+	
+	@PreAuthorize("hasAuthority('ROLE_USER')")
+	@GetMapping("/upload/{uploadId}")
+	public Map<String, Object> getUpload(@PathVariable String uploadId, Authentication authentication) {
+		return uploadStatus(battachUploads.get(uploadId, authentication.getName()));
+	}
+	
+	@PreAuthorize("hasAuthority('ROLE_USER')")
+	@PutMapping("/upload/{uploadId}")
+	public Map<String, Object> appendUpload(@PathVariable String uploadId, @RequestParam long offset, 
+			@RequestHeader(value = "X-Chunk-SHA256", required = false) String sha256, 
+			HttpServletRequest request, Authentication authentication) throws IOException {
+		BattachUploads.Upload upload = battachUploads.get(uploadId, authentication.getName());
+		long length = request.getContentLengthLong();
+		if(length < 0) {
+			throw new ResponseStatusException(HttpStatus.LENGTH_REQUIRED, "Content-Length가 필요합니다.");
+		}
+		//요청 바디를 임시 파일에 바로 기록 (조각 전체를 메모리에 두지 않음)
+		battachUploads.append(upload, offset, request.getInputStream(), length, sha256);
+		return uploadStatus(upload);
+	}
+	
+	@PreAuthorize("hasAuthority('ROLE_USER')")
+	@PostMapping("/upload/{uploadId}/complete")
+	public Map<String, Object> completeUpload(@PathVariable String uploadId, @RequestParam int bno, 
+			Authentication authentication) throws IOException {
+		BattachUploads.Upload upload = battachUploads.get(uploadId, authentication.getName());
+		//첨부를 저장하기 전에 작성자 확인 (수정할 때도 작성자 조건으로 수정하므로 그 사이 삭제되면 0행)
+		String bwriter = boardService.getBwriter(bno);
+		if(bwriter == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "게시물이 없습니다.");
+		}
+		if(!bwriter.equals(authentication.getName())) {
+			throw new ResponseStatusException(HttpStatus.FORBIDDEN, "작성자만 첨부를 바꿀 수 있습니다.");
+		}
+		Board board = new Board();
+		board.setBno(bno);
+		board.setBwriter(bwriter);
+		board.setBattachoname(upload.getBattachoname());
+		board.setBattachtype(upload.getBattachtype());
+		InputStream is = battachUploads.beginComplete(upload);
+		boolean stored = false;
+		try {
+			//임시 파일을 스트림으로 저장소에 넘김 (BLOB 저장소는 DB로 바로 스트리밍, 파일 저장소는 해시 이름으로 복사)
+			battachStorage.store(board, is, upload.getSize());
+			int rows;
+			try {
+				rows = boardService.updateBattach(board);
+			} finally {
+				closeBattachContent(board);
+			}
+			if(rows == 0) {
+				throw new ResponseStatusException(HttpStatus.NOT_FOUND, "게시물이 없습니다.");
+			}
+			stored = true;
+		} finally {
+			battachUploads.finishComplete(upload, stored);
+		}
+		//게시물을 다시 조회하지 않고 (조회수도 올리지 않음) 저장한 첨부 정보만 응답
+		Map<String, Object> map = uploadStatus(upload);
+		map.put("bno", bno);
+		map.put("battachoname", board.getBattachoname());
+		map.put("battachtype", board.getBattachtype());
+		return map;
+	}
+	
+	@PreAuthorize("hasAuthority('ROLE_USER')")
+	@DeleteMapping("/upload/{uploadId}")
+	public void cancelUpload(@PathVariable String uploadId, Authentication authentication) {
+		battachUploads.cancel(battachUploads.get(uploadId, authentication.getName()));
+	}
+	
 	@PreAuthorize("hasAuthority('ROLE_USER')")
 	@GetMapping("/battach/{bno}")
-	public void download(@PathVariable int bno, HttpServletResponse response) {
-		//해당 게시물 가져오기
-		Board board = boardService.getBoard(bno);
+	public void download(@PathVariable int bno, 
+			@RequestHeader(value = "Range", required = false) String rangeHeader, 
+			HttpServletRequest request, HttpServletResponse response) {
 		try {
-			//파일 이름이 한글일 경우, 브라우저에서 한글 이름으로 다운로드 받기 위해 헤더에 추가할 내용
-			String fileName = new String(board.getBattachoname().getBytes("UTF-8"), "ISO-8859-1");
-			response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
-			//파일 타입을 헤더에 추가
-			response.setContentType(board.getBattachtype());
-			//응답 바디에 파일 데이터를 출력
-			OutputStream os = response.getOutputStream();
-			os.write(board.getBattachdata());
-			os.flush();
-			os.close();
+			//첨부 정보 가져오기 (첨부 데이터는 읽지 않음)
+			Battach battach = boardService.getBattach(bno);
+			//게시물이나 첨부가 없는 경우
+			if(battach == null || battach.getBattachoname() == null) {
+				response.sendError(HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+			//백그라운드에서 저장 중이거나 저장에 실패한 첨부
+			if(battach.getBattachstatus() != null) {
+				response.sendError(battachStatusCode(battach, response));
+				return;
+			}
+			//첨부가 저장된 저장소 (BLOB 또는 파일)
+			BattachStore store = battachStorage.getStore(battach);
+			//파일 이름, 종류 헤더 설정
+			setBattachHeaders(battach, response);
+			
+			//Range 요청이면 요청된 구간만 출력
+			long length = store.getSize(battach);
+			long start = 0;
+			long end = length - 1;
+			List<HttpRange> ranges = parseRanges(rangeHeader);
+			if(ranges == null) {
+				response.setHeader("Content-Range", "bytes */" + length);
+				response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			//여러 구간 요청(multipart/byteranges)은 지원하지 않으므로 전체를 응답
+			if(ranges.size() == 1) {
+				try {
+					start = ranges.get(0).getRangeStart(length);
+					end = ranges.get(0).getRangeEnd(length);
+				} catch(IllegalArgumentException e) {
+					response.setHeader("Content-Range", "bytes */" + length);
+					response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+					return;
+				}
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader("Content-Range", "bytes " + start + "-" + end + "/" + length);
+			}
+			response.setContentLengthLong(end - start + 1);
+			
+			//응답 바디에 파일 데이터를 출력 (첨부 전체를 힙에 올리지 않음)
+			store.transfer(battach, start, end - start + 1, request, response);
 		//첨부가 없는 경우는 요청 없음
 		} catch (IOException e) {
 			log.error(e.toString());
 		}		
 	}
+	
+	//이미지 첨부의 썸네일 (목록, 상세 화면의 미리보기용 JPEG)
+	//<img src="/board/battach/1/thumbnail?accessToken=xxxxx">
+	//썸네일을 아직 만들지 못했으면 원본 이미지를 응답하고, 이미지 첨부가 아니면 404
+	@PreAuthorize("hasAuthority('ROLE_USER')")
+	@GetMapping("/battach/{bno}/thumbnail")
+	public void thumbnail(@PathVariable int bno, WebRequest webRequest, 
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
+		BattachThumbnails.Thumbnail thumbnail = battachThumbnails.get(bno);
+		if(thumbnail == null) {
+			Battach battach = boardService.getBattach(bno);
+			if(battach == null || battach.getBattachtype() == null || !battach.getBattachtype().startsWith("image/")) {
+				response.sendError(HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+			download(bno, null, request, response);
+			return;
+		}
+		//브라우저에 캐시된 썸네일과 같으면 304 응답
+		if(webRequest.checkNotModified(thumbnail.getEtag())) {
+			return;
+		}
+		response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+		response.setContentLength(thumbnail.getData().length);
+		response.getOutputStream().write(thumbnail.getData());
+	}
+	
+	//첨부 정보(크기, 종류)만 응답 헤더로 알려줌 (첨부 데이터는 읽지 않음)
+	@PreAuthorize("hasAuthority('ROLE_USER')")
+	@RequestMapping(value = "/battach/{bno}", method = RequestMethod.HEAD)
+	public void downloadInfo(@PathVariable int bno, HttpServletResponse response) {
+		try {
+			//첨부 정보 가져오기
+			Battach battach = boardService.getBattach(bno);
+			//게시물이나 첨부가 없는 경우
+			if(battach == null || battach.getBattachoname() == null) {
+				response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+			if(battach.getBattachstatus() != null) {
+				response.setStatus(battachStatusCode(battach, response));
+				return;
+			}
+			//파일 이름, 종류, 크기 헤더 설정
+			setBattachHeaders(battach, response);
+			response.setContentLengthLong(battachStorage.getStore(battach).getSize(battach));
+		} catch (IOException e) {
+			log.error(e.toString());
+		}
+	}
+	
+	//저장 중인 첨부는 잠시 후 다시 요청하도록 503 + Retry-After, 저장에 실패한 첨부는 404
+	private int battachStatusCode(Battach battach, HttpServletResponse response) {
+		if("PENDING".equals(battach.getBattachstatus())) {
+			response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+			return HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+		}
+		return HttpServletResponse.SC_NOT_FOUND;
+	}
+	
+	//첨부 파일 이름, 종류를 응답 헤더에 설정
+	private void setBattachHeaders(Battach battach, HttpServletResponse response) throws IOException {
+		//파일 이름이 한글일 경우, 브라우저에서 한글 이름으로 다운로드 받기 위해 헤더에 추가할 내용
+		String fileName = new String(battach.getBattachoname().getBytes("UTF-8"), "ISO-8859-1");
+		response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+		//파일 타입을 헤더에 추가
+		response.setContentType(battach.getBattachtype());
+		//이어받기, 동영상 탐색을 위해 Range 요청을 지원함을 알림
+		response.setHeader("Accept-Ranges", "bytes");
+	}
+	
+	//첨부가 넘어왔을 경우 파일 정보를 설정하고 첨부 데이터를 저장소에 저장
+	//파일 데이터는 getBytes()로 힙에 올리지 않고, 멀티파트 임시 파일을 읽는 스트림과 크기만 넘김
+	private void setBattachContent(Board board) {
+		if(board.getBattach() != null && !board.getBattach().isEmpty()) {
+			MultipartFile mf = board.getBattach();
+			//파일 이름을 설정
+			board.setBattachoname(mf.getOriginalFilename());
+			//파일 종류를 설정
+			board.setBattachtype(mf.getContentType());
+			try {
+				//파일 데이터를 저장소에 저장
+				battachStorage.store(board, mf.getInputStream(), mf.getSize());
+			} catch (IOException e) {
+				log.error(e.toString());
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+	
+	//업로드 세션 상태 {"uploadId":..., "offset":..., "size":...}
+	private Map<String, Object> uploadStatus(BattachUploads.Upload upload) {
+		Map<String, Object> map = new HashMap<>();
+		map.put("uploadId", upload.getUploadId());
+		map.put("offset", upload.getOffset());
+		map.put("size", upload.getSize());
+		return map;
+	}
+	
+	//게시물 ETag ("bno-bversion")
+	private String boardEtag(int bno, int bversion) {
+		return "\"" + bno + "-" + bversion + "\"";
+	}
+	
+	//If-Match에서 이 게시물의 버전 얻기 (헤더가 없거나 * 이면 null)
+	//다른 게시물의 ETag이거나 형식이 잘못되었으면 412
+	static Integer parseIfMatch(String ifMatch, int bno) {
+		if(ifMatch == null || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		String prefix = "\"" + bno + "-";
+		for(String tag : ifMatch.split(",")) {
+			tag = tag.trim();
+			if(tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+				try {
+					return Integer.parseInt(tag.substring(prefix.length(), tag.length() - 1));
+				} catch(NumberFormatException e) {
+					break;
+				}
+			}
+		}
+		throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED);
+	}
+	
+	//백그라운드 저장 파이프라인에 첨부를 넘김 (파이프라인을 쓰지 않거나 가득 찼으면 요청 스레드에서 저장하고 null)
+	private BattachPipeline.Job prepareBattach(Board board) {
+		try {
+			BattachPipeline.Job job = battachPipeline.prepare(board);
+			if(job == null) {
+				setBattachContent(board);
+			}
+			return job;
+		} catch (IOException e) {
+			log.error(e.toString());
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void discardBattach(BattachPipeline.Job job) {
+		if(job != null) {
+			battachPipeline.discard(job);
+		}
+	}
+	
+	//DB 저장이 끝난 첨부 데이터 스트림 닫기
+	private void closeBattachContent(Board board) {
+		if(board.getBattachcontent() != null) {
+			try {
+				board.getBattachcontent().getStream().close();
+			} catch (IOException e) {
+				log.error(e.toString());
+			}
+		}
+	}
+	
+	//Accept-Encoding에 gzip이 있는지 (gzip;q=0 은 거부)
+	static boolean acceptsGzip(String acceptEncoding) {
+		if(acceptEncoding == null) {
+			return false;
+		}
+		for(String value : acceptEncoding.split(",")) {
+			String[] parts = value.trim().split(";");
+			if(parts[0].trim().equalsIgnoreCase("gzip")) {
+				return !(parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?"));
+			}
+		}
+		return false;
+	}
+	
+	//목록 토큰 생성 (클라이언트는 내용을 해석하지 않고 그대로 돌려줌)
+	static String encodeCursor(int bno) {
+		String value = "bno:" + bno;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	//목록 토큰에서 bno 얻기
+	static int decodeCursor(String cursor) {
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if(!value.startsWith("bno:")) {
+				throw new IllegalArgumentException(value);
+			}
+			return Integer.parseInt(value.substring(4));
+		} catch(IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "잘못된 cursor 입니다.");
+		}
+	}
+	
+	//Range 헤더 해석 (헤더가 없으면 빈 목록, 형식이 잘못되었으면 null)
+	private List<HttpRange> parseRanges(String rangeHeader) {
+		try {
+			return HttpRange.parseRanges(rangeHeader);
+		} catch(IllegalArgumentException e) {
+			return null;
+		}
+	}
 }
 
 
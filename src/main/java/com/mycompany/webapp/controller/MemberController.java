@@ -2,22 +2,31 @@ package com.mycompany.webapp.controller;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.mycompany.webapp.dto.Member;
+import com.mycompany.webapp.interceptor.DbBulkheadInterceptor;
 import com.mycompany.webapp.security.AppUserDetails;
 import com.mycompany.webapp.security.AppUserDetailsService;
 import com.mycompany.webapp.security.JwtProvider;
+import com.mycompany.webapp.security.LoginThrottle;
+import com.mycompany.webapp.security.PasswordHashExecutor;
 import com.mycompany.webapp.service.MemberService;
 
 import lombok.extern.slf4j.Slf4j;
@@ -35,47 +44,100 @@ public class MemberController {
 	@Autowired
 	private MemberService memberService;
 	
+	@Autowired
+	private PasswordHashExecutor passwordHashExecutor;
+	
+	@Autowired
+	private LoginThrottle loginThrottle;
+	
+	@Autowired
+	private DbBulkheadInterceptor dbBulkheadInterceptor;
+	
 	@PostMapping("/login")
-	public Map<String, String> userLogin(String mid, String mpassword) {
+	public CompletableFuture<ResponseEntity<Map<String, String>>> userLogin(String mid, String mpassword, HttpServletRequest request) {
+		Map<String, String> map = new HashMap<>();
+		//같은 IP에서 로그인 실패가 많은 아이디는 비밀번호 해시를 계산하지 않고 바로 거부
+		//(프록시 뒤에서는 server.forward-headers-strategy로 얻은 클라이언트 IP)
+		String ip = request.getRemoteAddr();
+		if(loginThrottle.isBlocked(mid, ip)) {
+			map.put("result", "fail");
+			return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+					.header(HttpHeaders.RETRY_AFTER, String.valueOf(loginThrottle.getRetryAfterSeconds()))
+					.body(map));
+		}
 		//사용자 상세 정보 얻기
-		AppUserDetails userDetails = (AppUserDetails)userDetailsService.loadUserByUsername(mid);
-		//비밀번호 체크
-		PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
-		boolean checkResult = passwordEncoder.matches(mpassword, userDetails.getMember().getMpassword());
+		AppUserDetails userDetails;
+		try {
+			userDetails = (AppUserDetails)userDetailsService.loadUserByUsername(mid);
+		} catch (UsernameNotFoundException e) {
+			loginThrottle.recordFailure(mid, ip);
+			throw e;
+		}
 		//스프링 시큐리티 인증 처리
 		Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 		SecurityContextHolder.getContext().setAuthentication(authentication);
-		//응답 생성
-		//비밀번호 체크했을 때 로그인 성공했을 경우
-		Map<String, String> map = new HashMap<>();
-		if(checkResult) {
-			//AccessToken을 생성
-			String accessToken = jwtProvider.createAccessToken(mid, userDetails.getMember().getMrole());
-			//JSON 응답 구성
-			map.put("result", "success");
-			map.put("mid", mid);
-			map.put("accessToken", accessToken);
-		//비밀번호 체크했을 때 실패할 경우
-		} else {
+		//비밀번호 체크 (요청 스레드가 아닌 해시 전용 스레드 풀에서 실행, 풀이 가득 차면 바로 503 응답)
+		CompletableFuture<Boolean> checkResult;
+		try {
+			checkResult = passwordHashExecutor.matches(mpassword, userDetails.getMember().getMpassword());
+		} catch (RejectedExecutionException e) {
 			map.put("result", "fail");
+			return CompletableFuture.completedFuture(serviceUnavailable(map));
 		}
-		return map;
+		return checkResult.thenApply(matched -> {
+			//응답 생성
+			//비밀번호 체크했을 때 로그인 성공했을 경우
+			if(matched) {
+				loginThrottle.recordSuccess(mid, ip);
+				//AccessToken을 생성
+				String accessToken = jwtProvider.createAccessToken(mid, userDetails.getMember().getMrole());
+				//JSON 응답 구성
+				map.put("result", "success");
+				map.put("mid", mid);
+				map.put("accessToken", accessToken);
+			//비밀번호 체크했을 때 실패할 경우
+			} else {
+				loginThrottle.recordFailure(mid, ip);
+				map.put("result", "fail");
+			}
+			return ResponseEntity.ok(map);
+		});
 	}
 	
 	@PostMapping("/join")
-	public Member join(@RequestBody Member member) {
-		//비밀번호 암호화
-		PasswordEncoder passwordEncoder = PasswordEncoderFactories.createDelegatingPasswordEncoder();
-		member.setMpassword(passwordEncoder.encode(member.getMpassword()));
-		//아이디 활성화 설정
-		member.setMenabled(true);
-		//권한 설정
-		member.setMrole("ROLE_USER");
-		//회원 가입 처리
-		memberService.join(member);
-		//비밀번호 제거(비밀번호는 제이슨 객체에 담아서 보내는 것은 보안 문제때문에 안됨)
-		member.setMpassword(null);
-		return member;
+	public CompletableFuture<ResponseEntity<Member>> join(@RequestBody Member member) {
+		//비밀번호 암호화 (해시 전용 스레드 풀에서 실행, 풀이 가득 차면 바로 503 응답)
+		CompletableFuture<String> encoded;
+		try {
+			encoded = passwordHashExecutor.encode(member.getMpassword());
+		} catch (RejectedExecutionException e) {
+			member.setMpassword(null);
+			return CompletableFuture.completedFuture(serviceUnavailable(member));
+		}
+		return encoded.thenApply(mpassword -> {
+			member.setMpassword(mpassword);
+			//아이디 활성화 설정
+			member.setMenabled(true);
+			//권한 설정
+			member.setMrole("ROLE_USER");
+			//회원 가입 처리 (해시 스레드에서 실행되므로 요청이 반납한 DB 허가를 다시 얻어서 저장, 얻지 못하면 503 응답)
+			try {
+				dbBulkheadInterceptor.runWithPermit(() -> memberService.join(member));
+			} catch (RejectedExecutionException e) {
+				member.setMpassword(null);
+				return serviceUnavailable(member);
+			}
+			//비밀번호 제거(비밀번호는 제이슨 객체에 담아서 보내는 것은 보안 문제때문에 안됨)
+			member.setMpassword(null);
+			return ResponseEntity.ok(member);
+		});
+	}
+	
+	//해시 스레드 풀이 가득 찼을 때의 응답 (잠시 후 다시 시도하도록 Retry-After 헤더 추가)
+	private <T> ResponseEntity<T> serviceUnavailable(T body) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.header(HttpHeaders.RETRY_AFTER, "1")
+				.body(body);
 	}
 }
 
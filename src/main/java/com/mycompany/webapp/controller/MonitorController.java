@@ -0,0 +1,133 @@
+package com.mycompany.webapp.controller;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.mycompany.webapp.dao.SqlStats;
+import com.mycompany.webapp.interceptor.DbBulkheadInterceptor;
+import com.mycompany.webapp.search.BoardSearchIndex;
+import com.mycompany.webapp.security.PasswordHashExecutor;
+import com.mycompany.webapp.service.BoardEventBroadcaster;
+import com.mycompany.webapp.service.BoardListCache;
+import com.mycompany.webapp.service.BoardReadCache;
+import com.mycompany.webapp.storage.BattachPipeline;
+import com.mycompany.webapp.storage.BattachThumbnails;
+import com.mycompany.webapp.storage.BattachUploads;
+
+//운영 중 상태(캐시 적중률 등)를 확인하기 위한 컨트롤러
+@RestController
+@RequestMapping("/monitor")
+public class MonitorController {
+	@Autowired
+	private BoardListCache boardListCache;
+	
+	@Autowired
+	private BoardReadCache boardReadCache;
+	
+	@Autowired
+	private BattachThumbnails battachThumbnails;
+	
+	@Autowired
+	private BattachUploads battachUploads;
+	
+	@Autowired
+	private BattachPipeline battachPipeline;
+	
+	@Autowired
+	private PasswordHashExecutor passwordHashExecutor;
+	
+	@Autowired
+	private DbBulkheadInterceptor dbBulkheadInterceptor;
+	
+	@Autowired
+	private BoardSearchIndex boardSearchIndex;
+	
+	@Autowired
+	private BoardEventBroadcaster boardEventBroadcaster;
+	
+	//목록 캐시 통계 {"hits":..., "misses":..., "evictions":..., ...}
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@GetMapping("/listcache")
+	public Map<String, Object> listCache() {
+		return boardListCache.getStats();
+	}
+	
+	//게시물 상세 캐시 통계 {"hits":..., "misses":..., "bytes":..., ...}
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@GetMapping("/readcache")
+	public Map<String, Object> readCache() {
+		return boardReadCache.getStats();
+	}
+	
+	//썸네일 생성 통계 {"queueDepth":..., "generated":..., "avgGenerateMillis":..., ...}
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@GetMapping("/thumbnail")
+	public Map<String, Object> thumbnail() {
+		return battachThumbnails.getStats();
+	}
+	
+	//조각 업로드 통계 {"uploads":..., "spoolBytes":..., "checksumFailures":..., "expired":..., ...}
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@GetMapping("/upload")
+	public Map<String, Object> upload() {
+		return battachUploads.getStats();
+	}
+	
+	//첨부 백그라운드 저장 통계 {"queueDepth":..., "inFlight":..., "fallbacks":..., "retried":..., "failed":..., ...}
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@GetMapping("/pipeline")
+	public Map<String, Object> pipeline() {
+		return battachPipeline.getStats();
+	}
+	
+	//비밀번호 해시 스레드 풀 통계 {"queueDepth":..., "avgHashMillis":..., "rejected":..., ...}
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@GetMapping("/hash")
+	public Map<String, Object> hash() {
+		return passwordHashExecutor.getStats();
+	}
+	
+	//검색 색인 통계 {"documents":..., "avgQueryMicros":..., ...}
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@GetMapping("/search")
+	public Map<String, Object> search() {
+		return boardSearchIndex.getStats();
+	}
+	
+	//검색 색인 재생성 (재생성 중에도 기존 색인으로 검색됨)
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@PostMapping("/search/rebuild")
+	public Map<String, Object> rebuildSearch() {
+		Map<String, Object> map = new HashMap<>();
+		map.put("result", boardSearchIndex.rebuild() ? "started" : "running");
+		return map;
+	}
+	
+	//변경 알림(SSE) 통계 {"subscribers":..., "sent":..., "dropped":..., "resets":..., ...}
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@GetMapping("/events")
+	public Map<String, Object> events() {
+		return boardEventBroadcaster.getStats();
+	}
+	
+	//매핑 구문별 SQL 실행 통계 {"statements": {"...BoardDao.count": {"calls":..., "execution": {"p99Millis":...}}}, "connectionWait": {...}}
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@GetMapping("/sql")
+	public Map<String, Object> sql() {
+		return SqlStats.getStats();
+	}
+	
+	//DB 동시 요청 제한 통계 {"waiting":..., "avgWaitMillis":..., "rejected":..., ...}
+	@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+	@GetMapping("/bulkhead")
+	public Map<String, Object> bulkhead() {
+		return dbBulkheadInterceptor.getStats();
+	}
+}
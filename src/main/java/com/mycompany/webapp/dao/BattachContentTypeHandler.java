@@ -0,0 +1,48 @@
+package com.mycompany.webapp.dao;
+
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedTypes;
+
+import com.mycompany.webapp.dto.BattachContent;
+
+//BattachContent를 길이가 정해진 바이너리 스트림으로 바인딩하는 MyBatis 타입 핸들러
+//JDBC 드라이버가 스트림을 나누어 전송하므로 첨부 크기와 상관없이 메모리 사용량이 일정함
+@MappedTypes(BattachContent.class)
+public class BattachContentTypeHandler extends BaseTypeHandler<BattachContent> {
+	@Override
+	public void setNonNullParameter(PreparedStatement ps, int i, BattachContent parameter, JdbcType jdbcType)
+			throws SQLException {
+		ps.setBinaryStream(i, parameter.getStream(), parameter.getLength());
+	}
+
+	//BLOB 컬럼을 BattachContent로 읽을 때는 BLOB의 스트림과 길이를 그대로 감쌈 (byte[]로 읽지 않음)
+	//스트림은 결과를 읽은 커서(ResultSet)가 열려 있는 동안만 읽을 수 있음 (selectBattachdataByBno와 같음)
+	@Override
+	public BattachContent getNullableResult(ResultSet rs, String columnName) throws SQLException {
+		return toContent(rs.getBlob(columnName));
+	}
+
+	@Override
+	public BattachContent getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+		return toContent(rs.getBlob(columnIndex));
+	}
+
+	@Override
+	public BattachContent getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+		return toContent(cs.getBlob(columnIndex));
+	}
+	
+	private BattachContent toContent(Blob blob) throws SQLException {
+		if(blob == null) {
+			return null;
+		}
+		return new BattachContent(blob.getBinaryStream(), blob.length());
+	}
+}
@@ -1,17 +1,38 @@
 package com.mycompany.webapp.dao;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import com.mycompany.webapp.dto.Battach;
 import com.mycompany.webapp.dto.Board;
 import com.mycompany.webapp.dto.Pager;
 
 @Mapper
 public interface BoardDao {
    public List<Board> selectByPage(Pager pager);
+   public List<Board> selectAfterBno(@Param("lastBno") Integer lastBno, @Param("size") int size);
    public int count();
    public Board selectByBno(int bno);
+   public String selectBwriterByBno(int bno);
+   public Battach selectBattachByBno(int bno);
+   public Cursor<Battach> selectBattachdataByBno(int bno);
+   public Cursor<Board> selectAllForIndex();
+   public Cursor<Board> selectForExport(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
    public int insert(Board board);
+   public int insertWithBno(Board board);
+   public List<Integer> selectNextBnos(int size);
    public int deleteByBno(int bno);
-   public int updateByBno(Board board);
-   public int updateBhitcount(int bno);
+   public int updateByBnoReturning(Map<String, Object> params);
+   public Map<String, Object> selectUpdatedByBno(int bno);
+   public int updateBattachdataByBno(Board board);
+   public int updateBattachByBno(Board board);
+   public int updatePendingBattach(Board board);
+   public int updatePendingBattachFailed(@Param("bno") int bno, @Param("jobId") String jobId);
+   public Integer selectBnoByBattachstatus(String jobId);
+   public int countByBattachsname(String battachsname);
+   public Cursor<String> selectBattachsnames();
+   public int addBhitcount(@Param("bno") int bno, @Param("delta") long delta);
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.mycompany.webapp.dao;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+//마이크로초 단위 지연 시간 히스토그램 (로그-선형 구간, 구간 내 오차 12.5% 이하)
+//- 0~15us는 1us 단위, 그 이상은 2의 거듭제곱 구간을 8개로 나눔
+//- 기록은 고정 크기 배열의 원자적 증가만 하므로 객체를 만들지 않음
+public class LatencyHistogram {
+	//구간을 나누는 비트 수 (2^3 = 8개)
+	private static final int SUB_BITS = 3;
+	private static final int SUB_COUNT = 1 << SUB_BITS;
+	//약 19시간(2^36us)까지 기록, 그 이상은 마지막 구간에 포함
+	private static final int MAX_EXPONENT = 36;
+	private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT;
+	
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalMicros = new LongAdder();
+	
+	public void record(long nanos) {
+		long micros = Math.max(0, nanos / 1000);
+		buckets.incrementAndGet(bucketOf(micros));
+		count.increment();
+		totalMicros.add(micros);
+	}
+	
+	public long getCount() {
+		return count.sum();
+	}
+	
+	//{"count":..., "avgMillis":..., "p50Millis":..., "p99Millis":..., "p999Millis":..., "maxMillis":...}
+	//백분위 값은 해당 구간의 상한값
+	public Map<String, Object> getStats() {
+		long[] snapshot = new long[BUCKET_COUNT];
+		long total = 0;
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			snapshot[i] = buckets.get(i);
+			total += snapshot[i];
+		}
+		Map<String, Object> stats = new HashMap<>();
+		stats.put("count", total);
+		stats.put("avgMillis", total == 0 ? 0 : toMillis(totalMicros.sum() / Math.max(1, count.sum())));
+		stats.put("p50Millis", toMillis(percentile(snapshot, total, 0.5)));
+		stats.put("p99Millis", toMillis(percentile(snapshot, total, 0.99)));
+		stats.put("p999Millis", toMillis(percentile(snapshot, total, 0.999)));
+		stats.put("maxMillis", toMillis(percentile(snapshot, total, 1.0)));
+		return stats;
+	}
+	
+	private static long percentile(long[] snapshot, long total, double ratio) {
+		if(total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(total * ratio));
+		long seen = 0;
+		for(int i = 0; i < snapshot.length; i++) {
+			seen += snapshot[i];
+			if(seen >= rank) {
+				return upperBoundOf(i);
+			}
+		}
+		return upperBoundOf(snapshot.length - 1);
+	}
+	
+	static int bucketOf(long micros) {
+		if(micros < 2 * SUB_COUNT) {
+			return (int) micros;
+		}
+		int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+		if(exponent == MAX_EXPONENT && micros >= (1L << (MAX_EXPONENT + 1))) {
+			return BUCKET_COUNT - 1;
+		}
+		int sub = (int) ((micros >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1));
+		return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+	}
+	
+	static long upperBoundOf(int bucket) {
+		if(bucket < 2 * SUB_COUNT) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+		int sub = bucket % SUB_COUNT;
+		return ((long) (SUB_COUNT + sub + 1) << (exponent - SUB_BITS)) - 1;
+	}
+	
+	private static double toMillis(long micros) {
+		return micros / 1000.0;
+	}
+}
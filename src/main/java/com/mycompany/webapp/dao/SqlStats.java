@@ -0,0 +1,87 @@
+package com.mycompany.webapp.dao;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+//SQL 실행 통계 저장소
+//SqlStatsInterceptor는 MyBatis가 생성하므로(관리 객체가 아님) 통계는 정적 필드에 보관
+public final class SqlStats {
+	//매핑 구문(statement id) 별 통계
+	public static class StatementStats {
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder rows = new LongAdder();
+		private final LatencyHistogram execution = new LatencyHistogram();
+		private final LatencyHistogram connectionWait = new LatencyHistogram();
+		
+		void record(long executionNanos, long waitNanos, long rowCount, boolean error) {
+			calls.increment();
+			if(error) {
+				errors.increment();
+			}
+			if(rowCount > 0) {
+				rows.add(rowCount);
+			}
+			execution.record(executionNanos);
+			if(waitNanos > 0) {
+				connectionWait.record(waitNanos);
+			}
+		}
+		
+		private Map<String, Object> toMap() {
+			Map<String, Object> map = new TreeMap<>();
+			map.put("calls", calls.sum());
+			map.put("errors", errors.sum());
+			map.put("rows", rows.sum());
+			map.put("execution", execution.getStats());
+			map.put("connectionWait", connectionWait.getStats());
+			return map;
+		}
+	}
+	
+	private static final Map<String, StatementStats> STATEMENTS = new ConcurrentHashMap<>();
+	//커넥션 풀(poolName) 별 커넥션 대기 시간
+	private static final Map<String, LatencyHistogram> POOL_WAITS = new ConcurrentHashMap<>();
+	//현재 스레드가 커넥션을 기다린 누적 시간 (구문 실행 시간에서 대기 시간을 빼기 위해 사용)
+	private static final ThreadLocal<long[]> THREAD_WAIT_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+	
+	private SqlStats() {
+	}
+	
+	static StatementStats statement(String id) {
+		StatementStats stats = STATEMENTS.get(id);
+		if(stats == null) {
+			stats = STATEMENTS.computeIfAbsent(id, key -> new StatementStats());
+		}
+		return stats;
+	}
+	
+	//현재 스레드가 지금까지 커넥션을 기다린 시간 (호출 전후 값의 차이로 구간의 대기 시간을 구함)
+	public static long threadWaitNanos() {
+		return THREAD_WAIT_NANOS.get()[0];
+	}
+	
+	//Hikari에서 커넥션을 얻을 때마다 호출 (커넥션을 요청한 스레드에서 실행됨)
+	public static void recordConnectionWait(String poolName, long nanos) {
+		LatencyHistogram histogram = POOL_WAITS.get(poolName);
+		if(histogram == null) {
+			histogram = POOL_WAITS.computeIfAbsent(poolName, key -> new LatencyHistogram());
+		}
+		histogram.record(nanos);
+		THREAD_WAIT_NANOS.get()[0] += nanos;
+	}
+	
+	//{"statements": {"...BoardDao.selectByPage": {...}, ...}, "connectionWait": {"primary": {...}}}
+	public static Map<String, Object> getStats() {
+		Map<String, Object> statements = new TreeMap<>();
+		STATEMENTS.forEach((id, stats) -> statements.put(id, stats.toMap()));
+		Map<String, Object> pools = new TreeMap<>();
+		POOL_WAITS.forEach((name, histogram) -> pools.put(name, histogram.getStats()));
+		Map<String, Object> map = new TreeMap<>();
+		map.put("statements", statements);
+		map.put("connectionWait", pools);
+		return map;
+	}
+}
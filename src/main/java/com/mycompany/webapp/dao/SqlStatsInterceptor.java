@@ -0,0 +1,59 @@
+package com.mycompany.webapp.dao;
+
+import java.util.List;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+//매핑 구문별 호출 수, 오류 수, 행 수, 실행 시간을 기록하는 MyBatis 플러그인 (mapper-config.xml에 등록)
+//실행 시간에는 첫 SQL에서 커넥션을 얻느라 기다린 시간이 포함되므로 그 시간은 빼고 따로 기록함
+//(DataSourceConfig가 항상 LazyConnectionDataSourceProxy를 쓰므로 트랜잭션 안에서도 첫 SQL에서 커넥션을 얻음)
+//커서 조회(queryCursor)는 행을 나중에 읽으므로 행 수를 세지 않음
+@Intercepts({
+	@Signature(type = Executor.class, method = "query", 
+			args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+	@Signature(type = Executor.class, method = "query", 
+			args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+	@Signature(type = Executor.class, method = "queryCursor", 
+			args = {MappedStatement.class, Object.class, RowBounds.class}),
+	@Signature(type = Executor.class, method = "update", 
+			args = {MappedStatement.class, Object.class})
+})
+public class SqlStatsInterceptor implements Interceptor {
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		MappedStatement mappedStatement = (MappedStatement) invocation.getArgs()[0];
+		SqlStats.StatementStats stats = SqlStats.statement(mappedStatement.getId());
+		long waitBefore = SqlStats.threadWaitNanos();
+		long start = System.nanoTime();
+		Object result = null;
+		boolean error = true;
+		try {
+			result = invocation.proceed();
+			error = false;
+			return result;
+		} finally {
+			long elapsed = System.nanoTime() - start;
+			long wait = SqlStats.threadWaitNanos() - waitBefore;
+			stats.record(elapsed - wait, wait, rowCount(result), error);
+		}
+	}
+	
+	private static long rowCount(Object result) {
+		if(result instanceof List) {
+			return ((List<?>) result).size();
+		}
+		if(result instanceof Integer) {
+			return (Integer) result;
+		}
+		return 0;
+	}
+}
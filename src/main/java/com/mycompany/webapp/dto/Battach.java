@@ -0,0 +1,17 @@
+package com.mycompany.webapp.dto;
+
+import java.io.InputStream;
+
+import lombok.Data;
+
+//첨부 파일 다운로드를 위한 객체 (첨부 데이터를 byte[]가 아닌 스트림으로 가짐)
+@Data
+public class Battach {
+	private int bno;
+	private String battachoname;
+	private String battachsname;
+	private String battachtype;
+	private long battachsize;      //첨부 데이터의 크기(byte)
+	private String battachstatus;  //첨부 저장 상태 (null: 저장됨, PENDING: 백그라운드에서 저장 중, FAILED: 저장 실패)
+	private InputStream battachstream;   //BLOB 컬럼을 읽는 스트림 (커서가 열려 있는 동안만 유효)
+}
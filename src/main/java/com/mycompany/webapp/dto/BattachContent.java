@@ -0,0 +1,14 @@
+package com.mycompany.webapp.dto;
+
+import java.io.InputStream;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//업로드된 첨부 데이터를 byte[]로 만들지 않고 스트림과 길이로 DB에 전달하기 위한 객체
+@Data
+@AllArgsConstructor
+public class BattachContent {
+	private InputStream stream;   //멀티파트 임시 파일을 읽는 스트림
+	private long length;          //첨부 데이터의 크기(byte)
+}
@@ -18,5 +18,7 @@ public class Board {
 	   private String battachoname;
 	   private String battachsname;
 	   private String battachtype;
-	   private byte[] battachdata;
+	   private BattachContent battachcontent;
+	   private Integer bversion;       //수정할 때마다 1씩 증가 (ETag, If-Match로 동시 수정 확인)
+	   private String battachstatus;   //첨부 저장 상태 (null: 저장됨, PENDING: 백그라운드에서 저장 중, FAILED: 저장 실패)
 }
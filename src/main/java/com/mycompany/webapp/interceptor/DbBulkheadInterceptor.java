@@ -0,0 +1,160 @@
+package com.mycompany.webapp.interceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import lombok.extern.slf4j.Slf4j;
+
+//DB를 사용하는 요청의 동시 실행 수를 커넥션 풀 크기에 맞춰 제한하는 인터셉터
+//허가(permit)를 얻지 못한 요청은 최대 db.bulkhead.max-waiting 개까지만 db.bulkhead.wait-timeout 동안 기다리고,
+//그 이상이면 커넥션 풀에서 기다리지 않고 바로 503(Retry-After) 응답
+//비동기 처리의 후속 작업(요청 스레드가 아닌 스레드)에서 DB를 사용할 때는 runWithPermit으로 같은 한도를 적용
+@Slf4j
+@Component
+public class DbBulkheadInterceptor implements AsyncHandlerInterceptor {
+	//허가를 얻은 요청에 표시하는 요청 속성 이름
+	private static final String PERMIT_ATTRIBUTE = DbBulkheadInterceptor.class.getName() + ".PERMIT";
+	
+	private final Semaphore permits;
+	private final int permitCount;
+	private final int maxWaiting;
+	private final long waitTimeout;
+	private final int retryAfter;
+	private final AtomicInteger waiting = new AtomicInteger();
+	
+	//대기 시간, 거부 통계
+	private final LongAdder admitted = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder waitNanos = new LongAdder();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+	
+	public DbBulkheadInterceptor(
+			@Value("${db.bulkhead.permits:0}") int permitCount,
+			@Value("${db.pool.maximum-size:3}") int poolSize,
+			@Value("${db.bulkhead.max-waiting:20}") int maxWaiting,
+			@Value("${db.bulkhead.wait-timeout:1000}") long waitTimeout,
+			@Value("${db.bulkhead.retry-after:1}") int retryAfter) {
+		//허가 수를 설정하지 않으면 커넥션 풀 크기만큼
+		this.permitCount = (permitCount > 0) ? permitCount : poolSize;
+		this.permits = new Semaphore(this.permitCount, true);
+		this.maxWaiting = maxWaiting;
+		this.waitTimeout = waitTimeout;
+		this.retryAfter = retryAfter;
+	}
+	
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+			throws Exception {
+		//비동기 처리 결과를 응답하기 위한 재요청(async dispatch)은 DB를 사용하지 않음
+		if(request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod)) {
+			return true;
+		}
+		if(!acquire()) {
+			return reject(response);
+		}
+		request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+		return true;
+	}
+	
+	//허가를 얻어서 DB 작업 실행 (비동기 처리 중 요청 스레드가 아닌 스레드에서 DB를 사용할 때)
+	//허가를 얻지 못하면 RejectedExecutionException
+	public void runWithPermit(Runnable task) {
+		if(!acquire()) {
+			rejected.increment();
+			log.info("DB 동시 요청 한도 초과로 작업 거부");
+			throw new RejectedExecutionException("DB 동시 요청 한도 초과");
+		}
+		try {
+			task.run();
+		} finally {
+			permits.release();
+		}
+	}
+	
+	//요청 스레드의 처리가 끝나고 비동기 처리가 시작되면 허가 반납 (로그인/회원가입의 비밀번호 해시 대기 동안 허가를 잡고 있지 않음)
+	//비동기 처리에서 DB를 다시 사용하는 작업은 runWithPermit으로 허가를 다시 얻어야 함
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+			Object handler) throws Exception {
+		release(request);
+	}
+	
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) throws Exception {
+		release(request);
+	}
+	
+	//대기 시간, 거부 수 통계
+	public Map<String, Object> getStats() {
+		long count = admitted.sum();
+		Map<String, Object> stats = new HashMap<>();
+		stats.put("permits", permitCount);
+		stats.put("available", permits.availablePermits());
+		stats.put("waiting", waiting.get());
+		stats.put("maxWaiting", maxWaiting);
+		stats.put("admitted", count);
+		stats.put("rejected", rejected.sum());
+		stats.put("avgWaitMillis", count == 0 ? 0 : waitNanos.sum() / count / 1_000_000.0);
+		stats.put("maxWaitMillis", maxWaitNanos.get() / 1_000_000.0);
+		return stats;
+	}
+	
+	//바로 허가를 얻을 수 있으면 대기하지 않고, 대기 중인 요청이 너무 많으면 바로 실패
+	private boolean acquire() {
+		boolean acquired = permits.tryAcquire();
+		if(!acquired) {
+			if(waiting.incrementAndGet() > maxWaiting) {
+				waiting.decrementAndGet();
+				return false;
+			}
+			long start = System.nanoTime();
+			try {
+				acquired = permits.tryAcquire(waitTimeout, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				waiting.decrementAndGet();
+				long elapsed = System.nanoTime() - start;
+				waitNanos.add(elapsed);
+				maxWaitNanos.accumulateAndGet(elapsed, Math::max);
+			}
+			if(!acquired) {
+				return false;
+			}
+		}
+		admitted.increment();
+		return true;
+	}
+	
+	private void release(HttpServletRequest request) {
+		if(request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+			request.removeAttribute(PERMIT_ATTRIBUTE);
+			permits.release();
+		}
+	}
+	
+	private boolean reject(HttpServletResponse response) {
+		rejected.increment();
+		log.info("DB 동시 요청 한도 초과로 요청 거부");
+		response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+		return false;
+	}
+}
@@ -0,0 +1,366 @@
+package com.mycompany.webapp.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.mycompany.webapp.dao.BoardDao;
+import com.mycompany.webapp.dto.Board;
+import com.mycompany.webapp.service.BoardBatchInsertEvent;
+import com.mycompany.webapp.service.BoardChangeEvent;
+import com.mycompany.webapp.service.BoardService;
+
+import lombok.extern.slf4j.Slf4j;
+
+//게시물 제목/내용 전문 검색을 위한 메모리 역색인 (토큰 -> 게시물 번호 배열)
+//- 포스팅 목록은 bno 오름차순 int[]이며, 한 번 공개한 배열은 바꾸지 않고 새 배열로 교체함 (검색은 잠금 없이 읽음)
+//- 색인 변경(게시물 추가/수정/삭제 반영, 재색인)은 모두 하나의 색인 스레드에서 순서대로 실행
+//- 재색인은 새 색인을 따로 만든 뒤 한 번에 바꾸므로 그동안에도 기존 색인으로 검색됨
+//  (공개 전의 새 색인은 늘어나는 버퍼에 bno를 붙이고, 다 읽은 뒤 한 번만 int[]로 바꿈)
+@Component
+@Slf4j
+public class BoardSearchIndex {
+	//제목에 나온 검색어는 내용에 나온 것보다 높은 점수를 줌
+	private static final int TITLE_WEIGHT = 2;
+	private static final int CONTENT_WEIGHT = 1;
+	//검색어가 없는 토큰의 포스팅 목록 (읽기만 하므로 공유)
+	private static final int[] EMPTY = new int[0];
+	
+	//한 시점의 색인
+	private static class Index {
+		private final Map<String, int[]> titlePostings = new ConcurrentHashMap<>();
+		private final Map<String, int[]> contentPostings = new ConcurrentHashMap<>();
+		//게시물별 토큰 (수정/삭제 시 기존 포스팅에서 빼기 위해 보관)
+		private final Map<Integer, String[][]> documents = new ConcurrentHashMap<>();
+	}
+	
+	//재색인 중인 포스팅 목록 (공개 전이므로 복사하지 않고 끝에 붙임)
+	private static class PostingsBuffer {
+		private int[] values = new int[4];
+		private int size;
+		//bno 오름차순이 아닌 값이 들어왔는지 (커서는 bno 순서이므로 보통은 false)
+		private boolean unsorted;
+		
+		private void add(int bno) {
+			if(size > 0 && values[size - 1] >= bno) {
+				if(values[size - 1] == bno) {
+					return;
+				}
+				unsorted = true;
+			}
+			if(size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = bno;
+		}
+		
+		private int[] toArray() {
+			int[] array = Arrays.copyOf(values, size);
+			if(unsorted) {
+				array = Arrays.stream(array).sorted().distinct().toArray();
+			}
+			return array;
+		}
+	}
+	
+	@Autowired
+	private BoardService boardService;
+	
+	@Autowired
+	private BoardDao boardDao;
+	
+	private volatile Index index = new Index();
+	
+	private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "board-search-index");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private final AtomicBoolean rebuilding = new AtomicBoolean();
+	private volatile long lastRebuildMillis;
+	private volatile long lastRebuildTime;
+	private final LongAdder queries = new LongAdder();
+	private final LongAdder queryNanos = new LongAdder();
+	
+	//서버가 시작되면 게시물 테이블을 읽어 색인 생성
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		rebuild();
+	}
+	
+	//재색인 요청 (이미 재색인 중이면 false)
+	public boolean rebuild() {
+		if(!rebuilding.compareAndSet(false, true)) {
+			return false;
+		}
+		indexExecutor.execute(() -> {
+			try {
+				long start = System.currentTimeMillis();
+				Index newIndex = new Index();
+				Map<String, PostingsBuffer> titleBuffers = new HashMap<>();
+				Map<String, PostingsBuffer> contentBuffers = new HashMap<>();
+				//제목/내용은 커서로 한 행씩 읽어 바로 색인하고 버림
+				boardService.scanBoards(board -> {
+					String[][] tokens = tokenize(board);
+					for(String token : tokens[0]) {
+						titleBuffers.computeIfAbsent(token, key -> new PostingsBuffer()).add(board.getBno());
+					}
+					for(String token : tokens[1]) {
+						contentBuffers.computeIfAbsent(token, key -> new PostingsBuffer()).add(board.getBno());
+					}
+					newIndex.documents.put(board.getBno(), tokens);
+				});
+				titleBuffers.forEach((token, buffer) -> newIndex.titlePostings.put(token, buffer.toArray()));
+				contentBuffers.forEach((token, buffer) -> newIndex.contentPostings.put(token, buffer.toArray()));
+				index = newIndex;
+				lastRebuildMillis = System.currentTimeMillis() - start;
+				lastRebuildTime = System.currentTimeMillis();
+				log.info("검색 색인 생성: 게시물 " + newIndex.documents.size() + "개, " + lastRebuildMillis + "ms");
+			} catch(Exception e) {
+				log.error("검색 색인 생성 실패", e);
+			} finally {
+				rebuilding.set(false);
+			}
+		});
+		return true;
+	}
+	
+	//커밋된 게시물 변경을 색인에 반영 (요청 스레드를 막지 않도록 색인 스레드에서 처리)
+	//재색인 중에 들어온 변경은 재색인이 끝난 뒤 새 색인에 반영됨
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBoardChange(BoardChangeEvent event) {
+		int bno = event.getBno();
+		indexExecutor.execute(() -> {
+			try {
+				Index current = index;
+				remove(current, bno);
+				if(event.getOperation() != BoardChangeEvent.Operation.DELETE) {
+					Board board = boardDao.selectByBno(bno);
+					if(board != null) {
+						add(current, board);
+					}
+				}
+			} catch(Exception e) {
+				log.error("검색 색인 반영 실패: " + bno, e);
+			}
+		});
+	}
+	
+	//일괄 저장된 게시물을 한 작업으로 색인에 추가 (이벤트의 제목/내용을 그대로 쓰고 DB를 다시 조회하지 않음)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBoardBatchInsert(BoardBatchInsertEvent event) {
+		indexExecutor.execute(() -> {
+			try {
+				Index current = index;
+				for(Board board : event.getBoards()) {
+					add(current, board);
+				}
+			} catch(Exception e) {
+				log.error("검색 색인 반영 실패: 일괄 저장 " + event.getBoards().size() + "개", e);
+			}
+		});
+	}
+	
+	@PreDestroy
+	public void destroy() throws InterruptedException {
+		indexExecutor.shutdown();
+		indexExecutor.awaitTermination(5, TimeUnit.SECONDS);
+	}
+	
+	//검색: 점수(제목 일치 2점, 내용 일치 1점의 합) 내림차순, 같은 점수는 최신 글(bno 큰 순) 먼저
+	//and가 true면 모든 토큰이 들어 있는 게시물, false면 하나라도 들어 있는 게시물
+	public int[] search(String query, boolean and, int limit) {
+		long start = System.nanoTime();
+		try {
+			Index current = index;
+			Set<String> tokens = BoardTokenizer.tokenize(query);
+			if(tokens.isEmpty()) {
+				return EMPTY;
+			}
+			int[][] titles = new int[tokens.size()][];
+			int[][] contents = new int[tokens.size()][];
+			int[] candidates = null;
+			int t = 0;
+			for(String token : tokens) {
+				titles[t] = current.titlePostings.getOrDefault(token, EMPTY);
+				contents[t] = current.contentPostings.getOrDefault(token, EMPTY);
+				int[] matched = union(titles[t], contents[t]);
+				if(candidates == null) {
+					candidates = matched;
+				} else {
+					candidates = and ? intersect(candidates, matched) : union(candidates, matched);
+				}
+				t++;
+			}
+			//점수와 bno를 long 하나로 묶어 정렬 (상위 32비트: 점수, 하위 32비트: bno)
+			long[] ranked = new long[candidates.length];
+			for(int i = 0; i < candidates.length; i++) {
+				int bno = candidates[i];
+				long score = 0;
+				for(int j = 0; j < titles.length; j++) {
+					if(Arrays.binarySearch(titles[j], bno) >= 0) {
+						score += TITLE_WEIGHT;
+					}
+					if(Arrays.binarySearch(contents[j], bno) >= 0) {
+						score += CONTENT_WEIGHT;
+					}
+				}
+				ranked[i] = (score << 32) | bno;
+			}
+			Arrays.sort(ranked);
+			int size = Math.min(limit, ranked.length);
+			int[] result = new int[size];
+			for(int i = 0; i < size; i++) {
+				result[i] = (int) ranked[ranked.length - 1 - i];
+			}
+			return result;
+		} finally {
+			queries.increment();
+			queryNanos.add(System.nanoTime() - start);
+		}
+	}
+	
+	//검색 색인 통계
+	public Map<String, Object> getStats() {
+		Index current = index;
+		long count = queries.sum();
+		Map<String, Object> stats = new HashMap<>();
+		stats.put("documents", current.documents.size());
+		stats.put("titleTerms", current.titlePostings.size());
+		stats.put("contentTerms", current.contentPostings.size());
+		stats.put("rebuilding", rebuilding.get());
+		stats.put("lastRebuildMillis", lastRebuildMillis);
+		stats.put("lastRebuildTime", lastRebuildTime);
+		stats.put("queries", count);
+		stats.put("avgQueryMicros", count == 0 ? 0 : queryNanos.sum() / count / 1000);
+		return stats;
+	}
+	
+	//----------------------------------------------------------------------------------
+	//색인 변경 (색인 스레드에서만 호출)
+	
+	//{제목 토큰, 내용 토큰}
+	private static String[][] tokenize(Board board) {
+		return new String[][] {
+			BoardTokenizer.tokenize(board.getBtitle()).toArray(new String[0]),
+			BoardTokenizer.tokenize(board.getBcontent()).toArray(new String[0])
+		};
+	}
+	
+	//공개된 색인에 게시물 하나 추가 (검색 중인 배열은 바꾸지 않고 새 배열로 교체)
+	private static void add(Index index, Board board) {
+		int bno = board.getBno();
+		String[][] tokens = tokenize(board);
+		for(String token : tokens[0]) {
+			index.titlePostings.put(token, insert(index.titlePostings.get(token), bno));
+		}
+		for(String token : tokens[1]) {
+			index.contentPostings.put(token, insert(index.contentPostings.get(token), bno));
+		}
+		index.documents.put(bno, tokens);
+	}
+	
+	private static void remove(Index index, int bno) {
+		String[][] tokens = index.documents.remove(bno);
+		if(tokens == null) {
+			return;
+		}
+		removeFrom(index.titlePostings, tokens[0], bno);
+		removeFrom(index.contentPostings, tokens[1], bno);
+	}
+	
+	private static void removeFrom(Map<String, int[]> postings, String[] tokens, int bno) {
+		for(String token : tokens) {
+			int[] values = postings.get(token);
+			if(values == null) {
+				continue;
+			}
+			int pos = Arrays.binarySearch(values, bno);
+			if(pos < 0) {
+				continue;
+			}
+			if(values.length == 1) {
+				postings.remove(token);
+			} else {
+				int[] removed = new int[values.length - 1];
+				System.arraycopy(values, 0, removed, 0, pos);
+				System.arraycopy(values, pos + 1, removed, pos, values.length - pos - 1);
+				postings.put(token, removed);
+			}
+		}
+	}
+	
+	//정렬을 유지하며 bno를 넣은 새 배열 리턴
+	private static int[] insert(int[] values, int bno) {
+		if(values == null) {
+			return new int[] {bno};
+		}
+		int pos = Arrays.binarySearch(values, bno);
+		if(pos >= 0) {
+			return values;
+		}
+		pos = -pos - 1;
+		int[] inserted = new int[values.length + 1];
+		System.arraycopy(values, 0, inserted, 0, pos);
+		inserted[pos] = bno;
+		System.arraycopy(values, pos, inserted, pos + 1, values.length - pos);
+		return inserted;
+	}
+	
+	//----------------------------------------------------------------------------------
+	//정렬된 int[] 집합 연산
+	
+	static int[] union(int[] a, int[] b) {
+		int[] merged = new int[a.length + b.length];
+		int i = 0, j = 0, n = 0;
+		while(i < a.length && j < b.length) {
+			if(a[i] < b[j]) {
+				merged[n++] = a[i++];
+			} else if(a[i] > b[j]) {
+				merged[n++] = b[j++];
+			} else {
+				merged[n++] = a[i++];
+				j++;
+			}
+		}
+		while(i < a.length) {
+			merged[n++] = a[i++];
+		}
+		while(j < b.length) {
+			merged[n++] = b[j++];
+		}
+		return n == merged.length ? merged : Arrays.copyOf(merged, n);
+	}
+	
+	static int[] intersect(int[] a, int[] b) {
+		int[] common = new int[Math.min(a.length, b.length)];
+		int i = 0, j = 0, n = 0;
+		while(i < a.length && j < b.length) {
+			if(a[i] < b[j]) {
+				i++;
+			} else if(a[i] > b[j]) {
+				j++;
+			} else {
+				common[n++] = a[i++];
+				j++;
+			}
+		}
+		return n == common.length ? common : Arrays.copyOf(common, n);
+	}
+}
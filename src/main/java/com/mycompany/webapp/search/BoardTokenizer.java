@@ -0,0 +1,53 @@
+package com.mycompany.webapp.search;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+//검색어/게시물 텍스트를 색인 단위(토큰)로 나눔
+//- 한글: 형태소 분석 없이 연속된 음절을 2글자씩(bigram) 자름 ("게시판검색" -> 게시, 시판, 판검, 검색)
+//       한 글자로만 된 단어는 그 글자 하나를 토큰으로 사용
+//- 영문/숫자: 공백, 기호로 나눈 단어를 소문자로 사용
+public final class BoardTokenizer {
+	private BoardTokenizer() {
+	}
+	
+	//중복을 제거한 토큰 (나온 순서 유지)
+	public static Set<String> tokenize(String text) {
+		Set<String> tokens = new LinkedHashSet<>();
+		if(text == null) {
+			return tokens;
+		}
+		int length = text.length();
+		int i = 0;
+		while(i < length) {
+			char ch = text.charAt(i);
+			if(isHangul(ch)) {
+				int start = i;
+				while(i < length && isHangul(text.charAt(i))) {
+					i++;
+				}
+				if(i - start == 1) {
+					tokens.add(text.substring(start, i));
+				} else {
+					for(int j = start; j < i - 1; j++) {
+						tokens.add(text.substring(j, j + 2));
+					}
+				}
+			} else if(Character.isLetterOrDigit(ch)) {
+				int start = i;
+				while(i < length && !isHangul(text.charAt(i)) && Character.isLetterOrDigit(text.charAt(i))) {
+					i++;
+				}
+				tokens.add(text.substring(start, i).toLowerCase());
+			} else {
+				i++;
+			}
+		}
+		return tokens;
+	}
+	
+	//한글 음절(가~힣)과 호환용 자모(ㄱ~ㅣ)
+	private static boolean isHangul(char ch) {
+		return (ch >= '가' && ch <= '힣') || (ch >= 'ㄱ' && ch <= 'ㆎ');
+	}
+}
@@ -1,6 +1,8 @@
 package com.mycompany.webapp.security;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -8,9 +10,13 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -27,6 +33,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 	@Autowired
 	private AppUserDetailsService userDetailsService;
 	
+	@Autowired
+	private MemberStatusCache memberStatusCache;
+	
+	//인증 객체 생성 방식
+	//db: 요청마다 DB에서 사용자 상세 정보를 읽음
+	//claims: 토큰의 sub, authority로 인증 객체를 만들고, 계정 사용 가능 여부만 짧게 캐시해서 확인
+	@Value("${jwt.auth.mode:db}")
+	private String authMode;
+	
 	@Override
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
 			throws ServletException, IOException {
@@ -62,14 +77,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 				log.info("AccessToken 이 유효함");
 				String userId = jwtProvider.getUserId(jws);
 				log.info("userId: " + userId);
-				//사용자 상세 정보 얻기
-				AppUserDetails userDetails = (AppUserDetails) userDetailsService.loadUserByUsername(userId);
 				//인증 객체 얻기
-				//사용자에 대한 상세 정보를 저장하고 있는 객체 (비밀번호는 필요없어서 null 처리)
-				Authentication authentication = 
-						new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+				Authentication authentication = "claims".equals(authMode) 
+						? createClaimsAuthentication(jws, userId) 
+						: createUserDetailsAuthentication(userId);
 				//스프링 시큐리티에 인증 객체 설정
-				SecurityContextHolder.getContext().setAuthentication(authentication);
+				if(authentication != null) {
+					SecurityContextHolder.getContext().setAuthentication(authentication);
+				}
 			} else {
 				//accessToken 유효하지 않은 경우
 				log.info("AccessToken 이 유효하지 않음");
@@ -81,6 +96,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 		
 	}
 	
+	//DB에서 읽은 사용자 상세 정보로 인증 객체 생성
+	private Authentication createUserDetailsAuthentication(String userId) {
+		//사용자 상세 정보 얻기
+		AppUserDetails userDetails = (AppUserDetails) userDetailsService.loadUserByUsername(userId);
+		//사용자에 대한 상세 정보를 저장하고 있는 객체 (비밀번호는 필요없어서 null 처리)
+		return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+	}
+	
+	//토큰의 클레임만으로 인증 객체 생성 (비활성화된 계정이면 null)
+	private Authentication createClaimsAuthentication(Jws<Claims> jws, String userId) {
+		if(!memberStatusCache.isEnabled(userId)) {
+			log.info("사용할 수 없는 계정: " + userId);
+			return null;
+		}
+		List<GrantedAuthority> authorities = new ArrayList<>();
+		String authority = jwtProvider.getAuthority(jws);
+		if(!authority.isEmpty()) {
+			authorities.add(new SimpleGrantedAuthority(authority));
+		}
+		User user = new User(userId, "", authorities);
+		return new UsernamePasswordAuthenticationToken(user, null, authorities);
+	}
+	
 }
 
 
@@ -1,6 +1,8 @@
 package com.mycompany.webapp.security;
 
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.crypto.SecretKey;
 
@@ -12,7 +14,6 @@ import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtParser;
-import io.jsonwebtoken.JwtParserBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
@@ -28,6 +29,30 @@ public class JwtProvider {
 	private SecretKey secretKey;
 	//AccessToken의 유효 기간(단위: 밀리세컨)
 	private long accessTokenDuration = 24*60*60*1000; // 하루동안
+	//JWT 파서 (스레드에 안전하므로 한 번만 생성해서 재사용)
+	private JwtParser jwtParser;
+	
+	//유효성 검사를 통과한 토큰 캐시 (같은 토큰으로 다시 요청하면 서명 검증 없이 해시 조회만 함)
+	//LRU 순서로 유지하고, 가득 차면 가장 오래 사용되지 않은 토큰 하나만 버림 (verifiedTokens로 동기화)
+	private static final int VERIFIED_TOKEN_CACHE_SIZE = 10000;
+	private final LinkedHashMap<String, VerifiedToken> verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+			return size() > VERIFIED_TOKEN_CACHE_SIZE;
+		}
+	};
+	
+	//검증된 토큰과 만료 시간
+	private static class VerifiedToken {
+		private final Jws<Claims> jws;
+		private final long expiration;
+		
+		private VerifiedToken(Jws<Claims> jws) {
+			this.jws = jws;
+			Date exp = jws.getPayload().getExpiration();
+			this.expiration = (exp != null) ? exp.getTime() : Long.MAX_VALUE;
+		}
+	}
 	
 	//생성자
 	// resources/application.properties 파일의 안에 정의한 시크릿키
@@ -36,6 +61,8 @@ public class JwtProvider {
 		try {
 			//application.property에서 문자열 키를 읽고, SecretKey를 생성
 			secretKey = Keys.hmacShaKeyFor(jwtSecurityKey.getBytes("UTF-8"));
+			//JWT 파서 빌더에 비밀키를 설정하고 파서 생성
+			jwtParser = Jwts.parser().verifyWith(secretKey).build();
 		} catch (Exception e) {
 			log.info(e.toString());
 		} 
@@ -70,18 +97,37 @@ public class JwtProvider {
 	}
 	
 	// 토큰을 가져올 때 유효성 검사 (사용자가 로그인을 다시 할 때)
+	// 이미 검증된 토큰이면 만료 시간만 확인하고 캐시된 jws를 리턴
 	public Jws<Claims> validateToken(String token) {
+		VerifiedToken verified;
+		synchronized(verifiedTokens) {
+			verified = verifiedTokens.get(token);
+		}
+		if(verified != null) {
+			if(verified.expiration > System.currentTimeMillis()) {
+				return verified.jws;
+			}
+			synchronized(verifiedTokens) {
+				verifiedTokens.remove(token);
+			}
+			log.info("만료된 JWT 토큰입니다.");
+			return null;
+		}
+		
+		Jws<Claims> jws = parseToken(token);
+		if(jws != null) {
+			cacheVerifiedToken(token, jws);
+		}
+		return jws;
+	}
+	
+	// 토큰의 서명과 만료 시간 검사 (캐시를 사용하지 않음)
+	private Jws<Claims> parseToken(String token) {
 		Jws<Claims> jws = null;
 		// jws의 디폴트 값을 null로 줬기 때문에 유효성검사 통과하면 페이로드 정보를 가진 jwt를 리턴 아니면 null값 그대로
 	    try {
-	    	//JWT 파서 빌더 생성
-	        JwtParserBuilder builder = Jwts.parser();
-	        //JWT 파서 빌더에 비밀키 설정
-	        builder.verifyWith(secretKey);
-	        //JWT 파서 생성
-	        JwtParser parser = builder.build();
 	        //AccessToken으로부터 payload 얻기
-	        jws = parser.parseSignedClaims(token);
+	        jws = jwtParser.parseSignedClaims(token);
 	    } catch (io.jsonwebtoken.security.SecurityException | MalformedJwtException e) {
 	        log.info("잘못된 JWT 서명입니다.");
 	    } catch (ExpiredJwtException e) {
@@ -99,6 +145,14 @@ public class JwtProvider {
 		 */
 	}
 	
+	// 검증된 토큰 저장 (캐시가 가득 차면 가장 오래 사용되지 않은 토큰을 버림, 만료된 토큰은 조회할 때 지움)
+	private void cacheVerifiedToken(String token, Jws<Claims> jws) {
+		VerifiedToken verified = new VerifiedToken(jws);
+		synchronized(verifiedTokens) {
+			verifiedTokens.put(token, verified);
+		}
+	}
+	
 	// 리턴된 jws의 페이로드 정보 중 id 얻기
 	public String getUserId(Jws<Claims> jws) {
 		//Payload 얻기
@@ -113,7 +167,8 @@ public class JwtProvider {
 		//Payload 얻기
 	    Claims claims = jws.getPayload();
 		//사용자 권한 얻기
-		String autority = claims.get("authority").toString();
+		Object value = claims.get("authority");
+		String autority = (value != null) ? value.toString() : "";
 	    return autority;
 	}	
 	
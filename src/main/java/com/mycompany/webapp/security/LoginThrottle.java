@@ -0,0 +1,82 @@
+package com.mycompany.webapp.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+//로그인 실패 횟수 제한
+//(아이디, IP)별로 실패 횟수를 세고 한도를 넘으면 일정 시간 동안 비밀번호 해시를 계산하지 않고 바로 거부함
+//아이디만으로 세면 다른 사람이 일부러 실패해서 그 아이디의 로그인을 막을 수 있으므로 아이디는 IP와 함께 셈
+//IP만으로는 세지 않음 (프록시나 공유 NAT 뒤의 사용자가 다른 사람의 실패로 모두 잠기지 않도록)
+//IP는 server.forward-headers-strategy로 신뢰하는 프록시를 거쳐 온 클라이언트 IP
+@Component
+public class LoginThrottle {
+	//오래된 기록을 정리하는 기준 크기
+	private static final int MAX_SIZE = 100000;
+	
+	private final ConcurrentHashMap<String, Failures> failures = new ConcurrentHashMap<>();
+	
+	@Value("${member.login.max-failures-per-user-ip:5}")
+	private int maxFailuresPerUser;
+	
+	//실패 횟수를 세는 시간이자 한도를 넘었을 때 거부하는 시간(밀리세컨)
+	@Value("${member.login.lock-duration:60000}")
+	private long lockDuration;
+	
+	//실패 기록 (windowStart 부터 lockDuration 동안의 실패 횟수)
+	private static class Failures {
+		private long windowStart;
+		private int count;
+	}
+	
+	//로그인을 시도할 수 없는 상태인지 확인
+	public boolean isBlocked(String mid, String ip) {
+		return isBlocked(userKey(mid, ip), maxFailuresPerUser);
+	}
+	
+	//다시 시도할 수 있을 때까지 남은 시간(초)
+	public long getRetryAfterSeconds() {
+		return Math.max(1, lockDuration / 1000);
+	}
+	
+	//로그인 실패 기록
+	public void recordFailure(String mid, String ip) {
+		if(failures.size() >= MAX_SIZE) {
+			long now = System.currentTimeMillis();
+			failures.values().removeIf(f -> now - f.windowStart >= lockDuration);
+		}
+		increment(userKey(mid, ip));
+	}
+	
+	//로그인 성공 시 그 IP에서의 아이디 실패 기록 삭제
+	public void recordSuccess(String mid, String ip) {
+		failures.remove(userKey(mid, ip));
+	}
+	
+	private String userKey(String mid, String ip) {
+		return "mid:" + mid + "@" + ip;
+	}
+	
+	private boolean isBlocked(String key, int maxFailures) {
+		Failures f = failures.get(key);
+		if(f == null) {
+			return false;
+		}
+		synchronized(f) {
+			return f.count >= maxFailures && System.currentTimeMillis() - f.windowStart < lockDuration;
+		}
+	}
+	
+	private void increment(String key) {
+		Failures f = failures.computeIfAbsent(key, k -> new Failures());
+		synchronized(f) {
+			long now = System.currentTimeMillis();
+			if(now - f.windowStart >= lockDuration) {
+				f.windowStart = now;
+				f.count = 0;
+			}
+			f.count++;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.mycompany.webapp.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.mycompany.webapp.dao.MemberDao;
+import com.mycompany.webapp.dto.Member;
+
+//회원의 사용 가능 여부(menabled)를 짧은 시간 동안 캐시
+//claims 인증 모드에서 요청마다 DB를 조회하지 않으면서도,
+//비활성화된 계정은 최대 jwt.auth.member-cache-ttl 이후에는 거부되도록 함
+//이 애플리케이션에는 회원을 비활성화/삭제하는 기능이 없고 DB에서 직접 바꾸므로 캐시를 바로 지우지 않음
+//(바꾼 뒤 TTL 동안은 이미 발급된 토큰으로 요청이 허용될 수 있음, 바로 막아야 하면 jwt.auth.mode=db 사용)
+@Component
+public class MemberStatusCache {
+	//캐시할 최대 회원 수 (가득 차면 만료된 항목부터 지움)
+	private static final int MAX_SIZE = 10000;
+	
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+	
+	@Autowired
+	private MemberDao memberDao;
+	
+	@Value("${jwt.auth.member-cache-ttl:30000}")
+	private long ttl;
+	
+	private static class Entry {
+		private final boolean enabled;
+		private final long expiresAt;
+		
+		private Entry(boolean enabled, long expiresAt) {
+			this.enabled = enabled;
+			this.expiresAt = expiresAt;
+		}
+	}
+	
+	//회원이 존재하고 사용 가능한 상태인지 확인
+	public boolean isEnabled(String mid) {
+		long now = System.currentTimeMillis();
+		Entry entry = entries.get(mid);
+		if(entry == null || entry.expiresAt <= now) {
+			Member member = memberDao.selectByMid(mid);
+			entry = new Entry(member != null && member.isMenabled(), now + ttl);
+			if(entries.size() >= MAX_SIZE) {
+				entries.values().removeIf(e -> e.expiresAt <= now);
+				if(entries.size() >= MAX_SIZE) {
+					entries.clear();
+				}
+			}
+			entries.put(mid, entry);
+		}
+		return entry.enabled;
+	}
+}
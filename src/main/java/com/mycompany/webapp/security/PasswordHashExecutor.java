@@ -0,0 +1,108 @@
+package com.mycompany.webapp.security;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+//비밀번호 해시(bcrypt) 전용 스레드 풀
+//해시 계산은 CPU를 많이 쓰므로 Tomcat 요청 스레드가 아닌 이 풀에서만 실행하고,
+//대기열이 가득 차면 기다리지 않고 RejectedExecutionException을 발생시킴
+@Component
+public class PasswordHashExecutor {
+	private final ThreadPoolExecutor executor;
+	
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+	
+	//지연 시간 통계
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder queueNanos = new LongAdder();
+	private final LongAdder hashNanos = new LongAdder();
+	private final AtomicLong maxHashNanos = new AtomicLong();
+	
+	public PasswordHashExecutor(
+			@Value("${member.hash.threads:0}") int threads, 
+			@Value("${member.hash.queue-capacity:50}") int queueCapacity) {
+		//스레드 수를 설정하지 않으면 CPU 코어 수만큼 사용
+		if(threads <= 0) {
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+		AtomicInteger threadNo = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, 
+				new ArrayBlockingQueue<>(queueCapacity), 
+				runnable -> {
+					Thread thread = new Thread(runnable, "password-hash-" + threadNo.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, 
+				new ThreadPoolExecutor.AbortPolicy());
+	}
+	
+	//비밀번호 확인
+	public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+		return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+	}
+	
+	//비밀번호 암호화
+	public CompletableFuture<String> encode(String rawPassword) {
+		return submit(() -> passwordEncoder.encode(rawPassword));
+	}
+	
+	private <T> CompletableFuture<T> submit(Supplier<T> task) {
+		long submitted = System.nanoTime();
+		try {
+			return CompletableFuture.supplyAsync(() -> {
+				long started = System.nanoTime();
+				try {
+					return task.get();
+				} finally {
+					long elapsed = System.nanoTime() - started;
+					queueNanos.add(started - submitted);
+					hashNanos.add(elapsed);
+					maxHashNanos.accumulateAndGet(elapsed, Math::max);
+					completed.increment();
+				}
+			}, executor);
+		} catch (RejectedExecutionException e) {
+			rejected.increment();
+			throw e;
+		}
+	}
+	
+	//해시 지연 시간, 대기열 길이 통계
+	public Map<String, Object> getStats() {
+		long count = completed.sum();
+		Map<String, Object> stats = new HashMap<>();
+		stats.put("threads", executor.getMaximumPoolSize());
+		stats.put("active", executor.getActiveCount());
+		stats.put("queueDepth", executor.getQueue().size());
+		stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+		stats.put("completed", count);
+		stats.put("rejected", rejected.sum());
+		stats.put("avgQueueMillis", count == 0 ? 0 : queueNanos.sum() / count / 1_000_000.0);
+		stats.put("avgHashMillis", count == 0 ? 0 : hashNanos.sum() / count / 1_000_000.0);
+		stats.put("maxHashMillis", maxHashNanos.get() / 1_000_000.0);
+		return stats;
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
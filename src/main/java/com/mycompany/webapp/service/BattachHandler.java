@@ -0,0 +1,11 @@
+package com.mycompany.webapp.service;
+
+import java.io.IOException;
+
+import com.mycompany.webapp.dto.Battach;
+
+//BLOB 스트림이 열려 있는 동안 첨부 데이터를 처리하는 콜백
+@FunctionalInterface
+public interface BattachHandler {
+	void handle(Battach battach) throws IOException;
+}
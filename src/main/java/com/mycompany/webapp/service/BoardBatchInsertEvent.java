@@ -0,0 +1,17 @@
+package com.mycompany.webapp.service;
+
+import java.util.List;
+
+import com.mycompany.webapp.dto.Board;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//여러 게시물을 한 번에 저장했을 때(BoardService.insertBatch) 게시물마다 BoardChangeEvent를 보내지 않고 한 번만 발행되는 이벤트
+//boards에는 저장한 게시물(bno, 제목, 내용, 글쓴이)이 들어 있으므로 받는 쪽은 DB를 다시 조회하지 않음
+//일괄 저장은 첨부가 없고 새 게시물은 상세 캐시에 없으므로 썸네일, 상세 캐시는 이 이벤트를 받지 않음
+@Data
+@AllArgsConstructor
+public class BoardBatchInsertEvent {
+	private List<Board> boards;
+}
@@ -0,0 +1,25 @@
+package com.mycompany.webapp.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+//게시물이 추가, 수정, 삭제되었을 때 발행되는 이벤트 (조회수 반영은 이벤트로 알리지 않음, BoardHitCounter 참고)
+//목록 캐시 등은 이 이벤트를 받아서 바뀐 게시물에 해당하는 내용을 무효화함
+//일괄 저장은 게시물마다 발행하지 않고 BoardBatchInsertEvent 하나로 알림
+@Data
+@AllArgsConstructor
+public class BoardChangeEvent {
+	public enum Operation { INSERT, UPDATE, DELETE }
+	
+	private int bno;
+	private Operation operation;
+	//변경 알림(/board/events)에 함께 보낼 제목과 글쓴이 (발행하는 쪽에서 알고 있을 때만 채움)
+	private String btitle;
+	private String bwriter;
+	//첨부가 바뀌었는지 (썸네일은 첨부가 바뀐 경우에만 다시 만듦, 알 수 없으면 true)
+	private boolean battachChanged;
+	
+	public BoardChangeEvent(int bno, Operation operation) {
+		this(bno, operation, null, null, true);
+	}
+}
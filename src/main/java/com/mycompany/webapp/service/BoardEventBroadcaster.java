@@ -0,0 +1,383 @@
+package com.mycompany.webapp.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.webapp.dto.Board;
+
+import lombok.extern.slf4j.Slf4j;
+
+//게시물 추가/수정/삭제를 구독자(/board/events)에게 Server-Sent Events로 알림
+//- 커밋된 변경마다 JSON을 한 번만 만들어 최근 이벤트 링 버퍼(board.events.history 개)에 보관
+//- 구독자마다 최대 board.events.buffer-size 개의 대기열을 두고, 넘치면 쌓인 이벤트를 버리고 reset 이벤트 하나로 대신함
+//  (느린 클라이언트 때문에 메모리가 늘거나 다른 구독자가 늦어지지 않음, reset을 받으면 목록을 다시 조회)
+//- 전송은 전송 스레드 풀에서만 하며, 보낼 것이 없는 구독자는 스레드를 쓰지 않음
+//- 한 번의 전송이 board.events.send-timeout 넘게 끝나지 않는 구독자(읽지 않아서 소켓 버퍼가 가득 참)는 구독에서 빼고,
+//  막힌 스레드 대신 전송 스레드를 하나 늘려서 다른 구독자가 늦어지지 않게 함 (전송이 풀리면 연결을 완료하고 스레드 수를 되돌림)
+//- 재연결 시 Last-Event-ID 이후의 이벤트가 링 버퍼에 남아 있으면 이어서 보내고, 없으면 reset을 보냄
+@Slf4j
+@Component
+public class BoardEventBroadcaster {
+	//링 버퍼에 보관하는 이벤트 (data는 미리 만든 JSON)
+	private static class Entry {
+		private final long seq;
+		private final String data;
+
+		private Entry(long seq, String data) {
+			this.seq = seq;
+			this.data = data;
+		}
+	}
+
+	//구독자 (queue, reset, heartbeat, scheduled, sending, stalled는 구독자 객체로 동기화)
+	private static class Subscriber {
+		private final SseEmitter emitter;
+		private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+		//대기열이 넘쳐서 버린 이벤트가 있음 (resetSeq는 마지막으로 버린 이벤트의 번호)
+		private boolean reset;
+		private long resetSeq;
+		private boolean heartbeat;
+		//전송 작업이 풀에 들어가 있거나 실행 중
+		private boolean scheduled;
+		//emitter.send 실행 중 (sendStartedAt은 시작 시각)
+		private boolean sending;
+		private long sendStartedAt;
+		//전송이 멈춰서 구독에서 뺌 (compensated: 대신할 전송 스레드를 늘렸음)
+		private boolean stalled;
+		private boolean compensated;
+
+		private Subscriber(SseEmitter emitter) {
+			this.emitter = emitter;
+		}
+	}
+
+	//이벤트 ID는 "{서버 시작 시각}-{번호}", 서버가 다시 시작되면 이전 ID로는 이어 받을 수 없음
+	private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+	private final Entry[] history;
+	private long lastSeq;
+
+	private final int bufferSize;
+	private final int maxSubscribers;
+	private final long timeout;
+	private final long sendTimeoutNanos;
+	private final int threads;
+	//멈춘 전송 대신 늘린 스레드 수 (senderExecutor로 동기화, 최대 maxExtraSenders)
+	private int extraSenders;
+	private final int maxExtraSenders;
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+	private final ThreadPoolExecutor senderExecutor;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final LongAdder published = new LongAdder();
+	private final LongAdder sent = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder resets = new LongAdder();
+	private final LongAdder resumed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder stalledSubscribers = new LongAdder();
+
+	public BoardEventBroadcaster(
+			@Value("${board.events.history:1000}") int historySize,
+			@Value("${board.events.buffer-size:100}") int bufferSize,
+			@Value("${board.events.max-subscribers:10000}") int maxSubscribers,
+			@Value("${board.events.threads:2}") int threads,
+			@Value("${board.events.timeout:1800000}") long timeout,
+			@Value("${board.events.send-timeout:5000}") long sendTimeout) {
+		this.history = new Entry[historySize];
+		this.bufferSize = bufferSize;
+		this.maxSubscribers = maxSubscribers;
+		this.timeout = timeout;
+		this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeout);
+		this.threads = threads;
+		//멈춘 클라이언트가 많아도 스레드가 끝없이 늘지 않도록 제한 (넘으면 구독에서 빼기만 함)
+		this.maxExtraSenders = threads * 4;
+		//구독자마다 전송 작업은 하나만 들어가므로 대기열은 구독자 수를 넘지 않음
+		AtomicInteger threadNo = new AtomicInteger();
+		senderExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "board-events-" + threadNo.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	//구독 (최대 구독자 수를 넘으면 null)
+	//lastEventId: 브라우저가 재연결할 때 보내는 Last-Event-ID 헤더 (처음 연결이면 null)
+	public SseEmitter subscribe(String lastEventId) {
+		if(subscribers.size() >= maxSubscribers) {
+			rejected.increment();
+			return null;
+		}
+		SseEmitter emitter = new SseEmitter(timeout);
+		Subscriber subscriber = new Subscriber(emitter);
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(emitter::complete);
+		emitter.onError(e -> subscribers.remove(subscriber));
+		//응답 헤더를 바로 보내도록 주석 한 줄을 먼저 전송
+		subscriber.heartbeat = true;
+		//링 버퍼를 읽는 동안 새 이벤트가 끼어들지 않도록 발행과 같은 잠금 안에서 등록
+		synchronized(history) {
+			if(lastEventId != null) {
+				resume(subscriber, lastEventId);
+			}
+			subscribers.add(subscriber);
+		}
+		schedule(subscriber);
+		return emitter;
+	}
+
+	//Last-Event-ID 이후의 이벤트를 대기열에 넣음 (history 잠금 안에서 호출)
+	private void resume(Subscriber subscriber, String lastEventId) {
+		long seq = parseSeq(lastEventId);
+		long oldest = Math.max(1, lastSeq - history.length + 1);
+		if(seq < 0 || seq > lastSeq || seq + 1 < oldest || lastSeq - seq > bufferSize) {
+			//이어 받을 수 없으면 목록을 다시 조회하도록 reset
+			subscriber.reset = true;
+			subscriber.resetSeq = lastSeq;
+			resets.increment();
+			return;
+		}
+		for(long s = seq + 1; s <= lastSeq; s++) {
+			subscriber.queue.add(history[(int) (s % history.length)]);
+		}
+		resumed.increment();
+	}
+
+	//이 서버가 발행한 ID가 아니면 -1
+	private long parseSeq(String eventId) {
+		int index = eventId.lastIndexOf('-');
+		if(index < 0 || !eventId.substring(0, index).equals(epoch)) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(eventId.substring(index + 1));
+		} catch(NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	//커밋된 게시물 변경을 구독자들의 대기열에 넣음
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBoardChange(BoardChangeEvent event) {
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("bno", event.getBno());
+		map.put("operation", event.getOperation());
+		map.put("btitle", event.getBtitle());
+		map.put("bwriter", event.getBwriter());
+		publish(map);
+	}
+
+	//일괄 저장은 게시물마다 보내지 않고 알림 하나로 보냄 {"operation":"INSERT", "bnos":[...], "bwriter":...}
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBoardBatchInsert(BoardBatchInsertEvent event) {
+		List<Board> boards = event.getBoards();
+		if(boards.isEmpty()) {
+			return;
+		}
+		Map<String, Object> map = new LinkedHashMap<>();
+		map.put("operation", BoardChangeEvent.Operation.INSERT);
+		map.put("bnos", boards.stream().mapToInt(Board::getBno).toArray());
+		map.put("bwriter", boards.get(0).getBwriter());
+		publish(map);
+	}
+
+	//알림 JSON을 한 번만 만들어 링 버퍼와 구독자들의 대기열에 넣음
+	private void publish(Map<String, Object> map) {
+		String data;
+		try {
+			data = objectMapper.writeValueAsString(map);
+		} catch(JsonProcessingException e) {
+			log.error("변경 알림 생성 실패: " + map, e);
+			return;
+		}
+		published.increment();
+		synchronized(history) {
+			Entry entry = new Entry(++lastSeq, data);
+			history[(int) (entry.seq % history.length)] = entry;
+			for(Subscriber subscriber : subscribers) {
+				boolean idle;
+				synchronized(subscriber) {
+					if(subscriber.reset) {
+						//이미 reset을 보낼 예정이면 이 이벤트도 reset에 포함
+						subscriber.resetSeq = entry.seq;
+						dropped.increment();
+					} else if(subscriber.queue.size() >= bufferSize) {
+						//느린 구독자: 쌓인 이벤트를 버리고 reset 하나로 대신함
+						dropped.add(subscriber.queue.size() + 1);
+						subscriber.queue.clear();
+						subscriber.reset = true;
+						subscriber.resetSeq = entry.seq;
+						resets.increment();
+					} else {
+						subscriber.queue.add(entry);
+					}
+					idle = !subscriber.scheduled;
+				}
+				if(idle) {
+					schedule(subscriber);
+				}
+			}
+		}
+	}
+
+	//프록시가 유휴 연결을 끊지 않도록, 또 끊어진 연결을 정리하도록 주기적으로 주석 한 줄을 보냄
+	@Scheduled(fixedDelayString = "${board.events.heartbeat-interval:30000}")
+	public void heartbeat() {
+		for(Subscriber subscriber : subscribers) {
+			synchronized(subscriber) {
+				subscriber.heartbeat = true;
+			}
+			schedule(subscriber);
+		}
+	}
+
+	//한 번의 전송이 send-timeout 넘게 걸리고 있는 구독자를 구독에서 빼고 전송 스레드를 하나 늘림
+	//막힌 write는 컨테이너의 쓰기 제한 시간(server.tomcat.connection-timeout)이 지나거나 클라이언트가 읽어야 풀림
+	@Scheduled(fixedDelayString = "${board.events.send-timeout:5000}")
+	public void checkStalled() {
+		long now = System.nanoTime();
+		for(Subscriber subscriber : subscribers) {
+			synchronized(subscriber) {
+				if(!subscriber.sending || subscriber.stalled || now - subscriber.sendStartedAt < sendTimeoutNanos) {
+					continue;
+				}
+				subscriber.stalled = true;
+				dropped.add(subscriber.queue.size());
+				subscriber.queue.clear();
+				subscriber.compensated = resizeSenders(1);
+			}
+			subscribers.remove(subscriber);
+			stalledSubscribers.increment();
+		}
+	}
+
+	//전송 스레드 수를 늘리거나(delta=1, 최대치면 false) 되돌림(delta=-1)
+	private boolean resizeSenders(int delta) {
+		synchronized(senderExecutor) {
+			if(delta > 0 && extraSenders >= maxExtraSenders) {
+				return false;
+			}
+			extraSenders += delta;
+			int size = threads + extraSenders;
+			//core는 maximum보다 클 수 없으므로 늘릴 때는 maximum부터, 줄일 때는 core부터 바꿈
+			if(delta > 0) {
+				senderExecutor.setMaximumPoolSize(size);
+				senderExecutor.setCorePoolSize(size);
+			} else {
+				senderExecutor.setCorePoolSize(size);
+				senderExecutor.setMaximumPoolSize(size);
+			}
+			return true;
+		}
+	}
+
+	//전송 작업을 풀에 넣음 (이미 들어가 있으면 그 작업이 보냄)
+	private void schedule(Subscriber subscriber) {
+		synchronized(subscriber) {
+			if(subscriber.scheduled) {
+				return;
+			}
+			subscriber.scheduled = true;
+		}
+		senderExecutor.execute(() -> drain(subscriber));
+	}
+
+	//대기열이 빌 때까지 전송 (잠금 밖에서 보내므로 느린 소켓이 발행을 막지 않음)
+	private void drain(Subscriber subscriber) {
+		try {
+			while(true) {
+				SseEmitter.SseEventBuilder builder;
+				synchronized(subscriber) {
+					subscriber.sending = false;
+					if(subscriber.stalled) {
+						break;
+					} else if(subscriber.reset) {
+						builder = SseEmitter.event().id(epoch + "-" + subscriber.resetSeq).name("reset").data("{}");
+						subscriber.reset = false;
+					} else if(!subscriber.queue.isEmpty()) {
+						Entry entry = subscriber.queue.poll();
+						builder = SseEmitter.event().id(epoch + "-" + entry.seq).name("board").data(entry.data);
+					} else if(subscriber.heartbeat) {
+						builder = SseEmitter.event().comment("");
+						subscriber.heartbeat = false;
+					} else {
+						subscriber.scheduled = false;
+						return;
+					}
+					subscriber.sending = true;
+					subscriber.sendStartedAt = System.nanoTime();
+				}
+				subscriber.emitter.send(builder);
+				sent.increment();
+			}
+			//늦어서 구독에서 뺀 구독자: 연결을 완료해서 브라우저가 Last-Event-ID로 다시 연결하게 함 (버린 이벤트는 reset으로 받음)
+			subscriber.emitter.complete();
+		} catch(IOException | IllegalStateException e) {
+			//연결이 끊겼거나 이미 완료된 구독자 (응답 정리는 컨테이너의 오류 알림으로 처리됨)
+			subscribers.remove(subscriber);
+		} finally {
+			synchronized(subscriber) {
+				subscriber.sending = false;
+				if(subscriber.compensated) {
+					subscriber.compensated = false;
+					resizeSenders(-1);
+				}
+			}
+		}
+	}
+
+	@PreDestroy
+	public void destroy() {
+		for(Subscriber subscriber : subscribers) {
+			subscriber.emitter.complete();
+		}
+		subscribers.clear();
+		senderExecutor.shutdownNow();
+	}
+
+	public Map<String, Object> getStats() {
+		Map<String, Object> map = new HashMap<>();
+		map.put("subscribers", subscribers.size());
+		map.put("maxSubscribers", maxSubscribers);
+		map.put("senderQueueDepth", senderExecutor.getQueue().size());
+		map.put("published", published.sum());
+		map.put("sent", sent.sum());
+		map.put("dropped", dropped.sum());
+		map.put("resets", resets.sum());
+		map.put("resumed", resumed.sum());
+		map.put("rejected", rejected.sum());
+		map.put("stalled", stalledSubscribers.sum());
+		synchronized(senderExecutor) {
+			map.put("extraSenders", extraSenders);
+		}
+		synchronized(history) {
+			map.put("lastEventId", epoch + "-" + lastSeq);
+		}
+		return map;
+	}
+}
@@ -0,0 +1,108 @@
+package com.mycompany.webapp.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.webapp.dto.Board;
+
+//게시물 테이블 내보내기 (NDJSON: 한 줄에 게시물 하나의 JSON, CSV: 첫 줄은 컬럼 이름)
+//커서에서 읽은 행을 바로 출력 스트림에 쓰므로 게시물 수와 상관없이 메모리 사용량이 일정함
+@Component
+public class BoardExporter {
+	private static final String[] COLUMNS = {
+		"bno", "btitle", "bcontent", "bwriter", "bdate", "bhitcount", "battachoname", "battachtype"
+	};
+	
+	@Autowired
+	private BoardService boardService;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	//내보낸 게시물 수 리턴
+	public long exportNdjson(LocalDateTime from, LocalDateTime to, OutputStream os) throws IOException {
+		long[] count = new long[1];
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(os)) {
+			//출력 스트림(응답)은 닫지 않음, 최상위 값 사이는 줄바꿈으로 구분
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+			boardService.exportBoards(from, to, board -> {
+				generator.writeStartObject();
+				generator.writeNumberField("bno", board.getBno());
+				generator.writeStringField("btitle", board.getBtitle());
+				generator.writeStringField("bcontent", board.getBcontent());
+				generator.writeStringField("bwriter", board.getBwriter());
+				generator.writeStringField("bdate", formatDate(board));
+				generator.writeNumberField("bhitcount", board.getBhitcount());
+				generator.writeStringField("battachoname", board.getBattachoname());
+				generator.writeStringField("battachtype", board.getBattachtype());
+				generator.writeEndObject();
+				count[0]++;
+			});
+			if(count[0] > 0) {
+				generator.writeRaw('\n');
+			}
+		}
+		return count[0];
+	}
+	
+	//내보낸 게시물 수 리턴
+	public long exportCsv(LocalDateTime from, LocalDateTime to, OutputStream os) throws IOException {
+		long[] count = new long[1];
+		Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8));
+		writer.write(String.join(",", COLUMNS));
+		writer.write("\r\n");
+		boardService.exportBoards(from, to, board -> {
+			writer.write(Integer.toString(board.getBno()));
+			writer.write(',');
+			writeCsvField(writer, board.getBtitle());
+			writer.write(',');
+			writeCsvField(writer, board.getBcontent());
+			writer.write(',');
+			writeCsvField(writer, board.getBwriter());
+			writer.write(',');
+			writeCsvField(writer, formatDate(board));
+			writer.write(',');
+			writer.write(Integer.toString(board.getBhitcount()));
+			writer.write(',');
+			writeCsvField(writer, board.getBattachoname());
+			writer.write(',');
+			writeCsvField(writer, board.getBattachtype());
+			writer.write("\r\n");
+			count[0]++;
+		});
+		//출력 스트림(응답)은 닫지 않음
+		writer.flush();
+		return count[0];
+	}
+	
+	//RFC 4180: 쉼표, 따옴표, 줄바꿈이 있으면 따옴표로 감싸고 따옴표는 두 번 씀
+	private void writeCsvField(Writer writer, String value) throws IOException {
+		if(value == null) {
+			return;
+		}
+		if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			writer.write(value);
+			return;
+		}
+		writer.write('"');
+		writer.write(value.replace("\"", "\"\""));
+		writer.write('"');
+	}
+	
+	//ISO-8601 (UTC)
+	private String formatDate(Board board) {
+		return board.getBdate() == null ? null : board.getBdate().toInstant().toString();
+	}
+}
@@ -0,0 +1,11 @@
+package com.mycompany.webapp.service;
+
+import java.io.IOException;
+
+import com.mycompany.webapp.dto.Board;
+
+//커서가 열려 있는 동안 게시물을 한 행씩 처리하는 콜백
+@FunctionalInterface
+public interface BoardHandler {
+	void handle(Board board) throws IOException;
+}
@@ -0,0 +1,116 @@
+package com.mycompany.webapp.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.mycompany.webapp.dao.BoardDao;
+
+import lombok.extern.slf4j.Slf4j;
+
+//게시물 조회수 카운터
+//조회할 때마다 update를 실행하지 않고 메모리에 모아 두었다가
+//board.hitcount.flush-interval 마다 배치로 DB에 반영함 (서버가 비정상 종료되면 최대 그 시간만큼의 조회수를 잃음)
+//반영할 때 게시물 변경 이벤트는 보내지 않음 (조회가 많은 게시물의 캐시가 반영할 때마다 비워지지 않도록)
+//상세 캐시는 반영한 조회수만큼 캐시된 조회수를 올리고, 목록 캐시는 board.list-cache.max-age 가 지나면 다시 읽음
+@Slf4j
+@Component
+public class BoardHitCounter {
+	//bno별 아직 DB에 반영되지 않은 조회수 (LongAdder는 내부적으로 분산된 셀을 사용하므로 락 없이 증가)
+	private final ConcurrentHashMap<Integer, LongAdder> pending = new ConcurrentHashMap<>();
+	//DB에 반영 중인 조회수 (반영이 끝나기 전에 조회한 경우에도 조회수가 줄어들어 보이지 않도록)
+	private final ConcurrentHashMap<Integer, Long> flushing = new ConcurrentHashMap<>();
+	
+	@Autowired
+	private SqlSessionFactory sqlSessionFactory;
+	
+	@Autowired
+	private BoardReadCache boardReadCache;
+	
+	//조회수 1 증가 (DB 작업 없음)
+	public void increment(int bno) {
+		pending.computeIfAbsent(bno, key -> new LongAdder()).increment();
+	}
+	
+	//아직 DB에 반영되지 않은 조회수
+	public long getPending(int bno) {
+		long count = 0;
+		LongAdder adder = pending.get(bno);
+		if(adder != null) {
+			count += adder.sum();
+		}
+		Long inFlight = flushing.get(bno);
+		if(inFlight != null) {
+			count += inFlight;
+		}
+		return count;
+	}
+	
+	//삭제된 게시물의 조회수는 버림
+	public void remove(int bno) {
+		pending.remove(bno);
+	}
+	
+	//모아 둔 조회수를 한 번의 배치로 DB에 반영
+	@Scheduled(fixedDelayString = "${board.hitcount.flush-interval:5000}")
+	public void flush() {
+		flush(true);
+	}
+	
+	//updateCache가 false면 반영 후 상세 캐시를 고치지 않음 (서버 종료 중에는 캐시를 사용하지 않음)
+	private synchronized void flush(boolean updateCache) {
+		Map<Integer, Long> deltas = new HashMap<>();
+		for(Map.Entry<Integer, LongAdder> entry : pending.entrySet()) {
+			long delta = entry.getValue().sumThenReset();
+			if(delta > 0) {
+				flushing.put(entry.getKey(), delta);
+				deltas.put(entry.getKey(), delta);
+			} else {
+				//지난 반영 이후 조회가 없는 게시물은 맵에서 제거 (제거와 동시에 들어온 조회 1건은 잃을 수 있음)
+				pending.remove(entry.getKey(), entry.getValue());
+			}
+		}
+		if(deltas.isEmpty()) {
+			return;
+		}
+		
+		try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+			BoardDao boardDao = sqlSession.getMapper(BoardDao.class);
+			for(Map.Entry<Integer, Long> entry : deltas.entrySet()) {
+				boardDao.addBhitcount(entry.getKey(), entry.getValue());
+			}
+			sqlSession.commit();
+			//반영 중인 조회수(flushing)를 지우기 전에 캐시된 조회수를 올림 (그 사이 조회수가 줄어들어 보이지 않도록)
+			if(updateCache) {
+				for(Map.Entry<Integer, Long> entry : deltas.entrySet()) {
+					boardReadCache.addHitcount(entry.getKey(), entry.getValue());
+				}
+			}
+		} catch (RuntimeException e) {
+			//반영에 실패하면 다음 번에 다시 반영하도록 되돌려 놓음
+			log.error("조회수 반영 실패: " + e.toString());
+			for(Map.Entry<Integer, Long> entry : deltas.entrySet()) {
+				pending.computeIfAbsent(entry.getKey(), key -> new LongAdder()).add(entry.getValue());
+			}
+			return;
+		} finally {
+			flushing.clear();
+		}
+	}
+	
+	//서버 종료 시 남은 조회수를 반영
+	@PreDestroy
+	public void shutdown() {
+		flush(false);
+	}
+}
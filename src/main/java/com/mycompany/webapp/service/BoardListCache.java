@@ -0,0 +1,206 @@
+package com.mycompany.webapp.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.webapp.dto.Board;
+
+import lombok.Getter;
+
+//게시물 목록 페이지 캐시 (pageNo, rowsPerPage 별로 최대 board.list-cache.max-pages 개)
+//페이지는 JSON으로 변환한 바이트(크기가 board.list-cache.gzip-min-size 이상이면 gzip 압축본도)로 저장하므로
+//캐시된 페이지를 응답할 때는 객체 변환이나 JSON 직렬화를 하지 않음
+//게시물 추가/삭제 시에는 모든 페이지가 밀리므로 전체를 무효화하고,
+//수정 시에는 해당 게시물이 들어 있는 페이지만 무효화함
+//조회수 반영으로는 무효화하지 않으므로 목록의 조회수는 최대 board.list-cache.max-age 만큼 늦게 바뀜
+@Component
+public class BoardListCache {
+	//캐시된 목록 페이지
+	@Getter
+	public static class Page {
+		private final String etag;
+		//{ "boards": [...], "pager": {...} } 의 UTF-8 JSON
+		private final byte[] json;
+		//json의 gzip 압축본 (작은 페이지는 null)
+		private final byte[] gzip;
+		private final int[] bnos;
+		//캐시한 시각 (System.nanoTime)
+		private final long createdAt;
+		
+		private Page(String etag, byte[] json, byte[] gzip, int[] bnos) {
+			this.etag = etag;
+			this.json = json;
+			this.gzip = gzip;
+			this.bnos = bnos;
+			this.createdAt = System.nanoTime();
+		}
+		
+		private boolean contains(int bno) {
+			for(int value : bnos) {
+				if(value == bno) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+	
+	private final int maxPages;
+	
+	@Value("${board.list-cache.gzip-min-size:1024}")
+	private int gzipMinSize;
+	
+	//캐시된 페이지를 사용하는 최대 시간(밀리세컨, 목록에 보이는 조회수가 늦게 바뀌는 최대 시간)
+	@Value("${board.list-cache.max-age:60000}")
+	private long maxAge;
+	
+	//스프링 MVC가 사용하는 것과 같은 설정의 ObjectMapper
+	@Autowired
+	private ObjectMapper objectMapper;
+	//LRU 순서로 유지 (가장 오래 사용하지 않은 페이지부터 제거)
+	private final LinkedHashMap<String, Page> pages;
+	//게시물이 바뀔 때마다 증가 (조회 도중 게시물이 바뀌면 그 결과는 캐시하지 않음)
+	private final AtomicLong generation = new AtomicLong();
+	//ETag 일련번호 (서버를 재시작해도 이전 ETag와 겹치지 않도록 시작 시간을 붙임)
+	private final AtomicLong etagSequence = new AtomicLong();
+	private final long epoch = System.currentTimeMillis();
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+	
+	public BoardListCache(@Value("${board.list-cache.max-pages:100}") int maxPages) {
+		this.maxPages = maxPages;
+		this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Page> eldest) {
+				if(size() > BoardListCache.this.maxPages) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	//캐시된 페이지 얻기 (없으면 null)
+	public Page get(int pageNo, int rowsPerPage) {
+		Page page;
+		synchronized(pages) {
+			page = pages.get(key(pageNo, rowsPerPage));
+			if(page != null && System.nanoTime() - page.createdAt > maxAge * 1_000_000L) {
+				pages.remove(key(pageNo, rowsPerPage));
+				evictions.increment();
+				page = null;
+			}
+		}
+		if(page == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return page;
+	}
+	
+	//DB에서 목록을 읽기 전에 얻어 두는 값 (put 할 때 넘김)
+	public long getGeneration() {
+		return generation.get();
+	}
+	
+	//DB에서 읽은 페이지를 JSON 바이트로 변환해서 캐시에 저장하고 ETag를 붙여서 리턴
+	//읽는 도중 게시물이 바뀌었으면 저장하지 않음
+	public Page put(int pageNo, int rowsPerPage, long readGeneration, Map<String, Object> content, List<Board> boards) {
+		int[] bnos = boards.stream().mapToInt(Board::getBno).toArray();
+		byte[] json;
+		byte[] gzip = null;
+		try {
+			json = objectMapper.writeValueAsBytes(content);
+			if(json.length >= gzipMinSize) {
+				gzip = gzip(json);
+			}
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		Page page = new Page("\"" + epoch + "-" + etagSequence.incrementAndGet() + "\"", json, gzip, bnos);
+		synchronized(pages) {
+			if(generation.get() == readGeneration) {
+				pages.put(key(pageNo, rowsPerPage), page);
+			}
+		}
+		return page;
+	}
+	
+	//게시물이 바뀌면(커밋 후) 해당 페이지를 무효화
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBoardChange(BoardChangeEvent event) {
+		synchronized(pages) {
+			generation.incrementAndGet();
+			int before = pages.size();
+			switch(event.getOperation()) {
+				case INSERT:
+				case DELETE:
+					pages.clear();
+					break;
+				default:
+					pages.values().removeIf(page -> page.contains(event.getBno()));
+			}
+			invalidations.add(before - pages.size());
+		}
+	}
+	
+	//일괄 저장(커밋 후)은 게시물 수와 상관없이 한 번만 전체 무효화
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBoardBatchInsert(BoardBatchInsertEvent event) {
+		synchronized(pages) {
+			generation.incrementAndGet();
+			invalidations.add(pages.size());
+			pages.clear();
+		}
+	}
+	
+	//캐시 크기를 정하기 위한 통계
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new HashMap<>();
+		synchronized(pages) {
+			stats.put("size", pages.size());
+			long bytes = 0;
+			for(Page page : pages.values()) {
+				bytes += page.json.length + (page.gzip != null ? page.gzip.length : 0);
+			}
+			stats.put("bytes", bytes);
+		}
+		stats.put("maxPages", maxPages);
+		stats.put("hits", hits.sum());
+		stats.put("misses", misses.sum());
+		stats.put("evictions", evictions.sum());
+		stats.put("invalidations", invalidations.sum());
+		return stats;
+	}
+	
+	private static byte[] gzip(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+		try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+			gzipOut.write(data);
+		}
+		return out.toByteArray();
+	}
+	
+	private String key(int pageNo, int rowsPerPage) {
+		return pageNo + ":" + rowsPerPage;
+	}
+}
@@ -0,0 +1,226 @@
+package com.mycompany.webapp.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.webapp.dto.Board;
+
+//게시물 상세 응답(JSON 바이트) 캐시 (bno 별로 최대 board.read-cache.max-entries 개)
+//조회수는 요청마다 바뀌므로 JSON을 "bhitcount": 값의 앞/뒤로 나누어 저장하고, 응답할 때 현재 조회수를 끼워 넣음
+//게시물 수정/삭제 시 해당 게시물만 무효화하고, 조회수가 DB에 반영되면 무효화하지 않고 캐시된 조회수만 올림
+@Component
+public class BoardReadCache {
+	private static final byte[] HITCOUNT_FIELD = "\"bhitcount\":".getBytes(StandardCharsets.UTF_8);
+	
+	//캐시된 게시물
+	public static class Entry {
+		//"bhitcount": 까지의 JSON
+		private final byte[] prefix;
+		//조회수 값 뒤의 JSON
+		private final byte[] suffix;
+		//캐시할 때 DB에 있던 조회수
+		private final int bhitcount;
+		//게시물 버전 (ETag)
+		private final int bversion;
+		
+		private Entry(byte[] prefix, byte[] suffix, int bhitcount, int bversion) {
+			this.prefix = prefix;
+			this.suffix = suffix;
+			this.bhitcount = bhitcount;
+			this.bversion = bversion;
+		}
+		
+		public int getBversion() {
+			return bversion;
+		}
+		
+		//DB에 반영된 조회수만 바꾼 항목 (JSON 바이트는 공유)
+		private Entry withBhitcount(int bhitcount) {
+			return new Entry(prefix, suffix, bhitcount, bversion);
+		}
+		
+		//DB의 조회수에 아직 반영되지 않은 조회수(pending)를 더한 JSON
+		public byte[] toJson(long pending) {
+			byte[] count = Long.toString(bhitcount + pending).getBytes(StandardCharsets.US_ASCII);
+			byte[] json = new byte[prefix.length + count.length + suffix.length];
+			System.arraycopy(prefix, 0, json, 0, prefix.length);
+			System.arraycopy(count, 0, json, prefix.length, count.length);
+			System.arraycopy(suffix, 0, json, prefix.length + count.length, suffix.length);
+			return json;
+		}
+		
+		private int size() {
+			return prefix.length + suffix.length;
+		}
+	}
+	
+	//응답할 게시물 JSON과 버전 (ETag를 만들 때 사용)
+	public static class Json {
+		private final byte[] data;
+		private final int bversion;
+		
+		public Json(byte[] data, int bversion) {
+			this.data = data;
+			this.bversion = bversion;
+		}
+		
+		public byte[] getData() {
+			return data;
+		}
+		
+		public int getBversion() {
+			return bversion;
+		}
+	}
+	
+	private final int maxEntries;
+	//LRU 순서로 유지
+	private final LinkedHashMap<Integer, Entry> entries;
+	//게시물이 바뀔 때마다 증가 (조회 도중 게시물이 바뀌면 그 결과는 캐시하지 않음)
+	private final AtomicLong generation = new AtomicLong();
+	
+	//이보다 큰 게시물은 캐시하지 않음 (바이트)
+	@Value("${board.read-cache.max-entry-size:262144}")
+	private int maxEntrySize;
+	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+	
+	public BoardReadCache(@Value("${board.read-cache.max-entries:1000}") int maxEntries) {
+		this.maxEntries = maxEntries;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+				if(size() > BoardReadCache.this.maxEntries) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	//캐시된 게시물 얻기 (없으면 null)
+	public Entry get(int bno) {
+		Entry entry;
+		synchronized(entries) {
+			entry = entries.get(bno);
+		}
+		if(entry == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return entry;
+	}
+	
+	//DB에서 읽기 전에 얻어 두는 값 (put 할 때 넘김)
+	public long getGeneration() {
+		return generation.get();
+	}
+	
+	//DB에서 읽은 게시물(조회수는 DB 값)을 JSON 바이트로 변환해서 저장
+	//읽는 도중 게시물이 바뀌었으면 저장하지 않음
+	public Entry put(int bno, long readGeneration, Board board) {
+		byte[] json;
+		try {
+			json = objectMapper.writeValueAsBytes(board);
+		} catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		//문자열 안의 따옴표는 \" 로 바뀌므로 "bhitcount": 는 필드 이름으로만 나옴
+		int start = indexOf(json, HITCOUNT_FIELD) + HITCOUNT_FIELD.length;
+		int end = start;
+		while(end < json.length && (json[end] == '-' || (json[end] >= '0' && json[end] <= '9'))) {
+			end++;
+		}
+		byte[] prefix = new byte[start];
+		byte[] suffix = new byte[json.length - end];
+		System.arraycopy(json, 0, prefix, 0, prefix.length);
+		System.arraycopy(json, end, suffix, 0, suffix.length);
+		Entry entry = new Entry(prefix, suffix, board.getBhitcount(), board.getBversion());
+		if(entry.size() <= maxEntrySize) {
+			synchronized(entries) {
+				if(generation.get() == readGeneration) {
+					entries.put(bno, entry);
+				}
+			}
+		}
+		return entry;
+	}
+	
+	//게시물이 바뀌면(커밋 후) 해당 게시물을 무효화 (새 게시물은 캐시에 없으므로 무시)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBoardChange(BoardChangeEvent event) {
+		if(event.getOperation() == BoardChangeEvent.Operation.INSERT) {
+			return;
+		}
+		synchronized(entries) {
+			generation.incrementAndGet();
+			if(entries.remove(event.getBno()) != null) {
+				invalidations.increment();
+			}
+		}
+	}
+	
+	//조회수가 DB에 반영되면 캐시된 조회수에 더함 (BoardHitCounter, 반영한 만큼 pending이 줄어듦)
+	//반영 전에 DB에서 읽은 결과가 캐시되지 않도록 generation도 올림
+	public void addHitcount(int bno, long delta) {
+		synchronized(entries) {
+			generation.incrementAndGet();
+			Entry entry = entries.get(bno);
+			if(entry != null) {
+				entries.put(bno, entry.withBhitcount((int) (entry.bhitcount + delta)));
+			}
+		}
+	}
+	
+	//캐시 크기를 정하기 위한 통계
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new HashMap<>();
+		synchronized(entries) {
+			stats.put("size", entries.size());
+			long bytes = 0;
+			for(Entry entry : entries.values()) {
+				bytes += entry.size();
+			}
+			stats.put("bytes", bytes);
+		}
+		stats.put("maxEntries", maxEntries);
+		stats.put("hits", hits.sum());
+		stats.put("misses", misses.sum());
+		stats.put("evictions", evictions.sum());
+		stats.put("invalidations", invalidations.sum());
+		return stats;
+	}
+	
+	private static int indexOf(byte[] data, byte[] target) {
+		outer:
+		for(int i = 0; i <= data.length - target.length; i++) {
+			for(int j = 0; j < target.length; j++) {
+				if(data[i + j] != target[j]) {
+					continue outer;
+				}
+			}
+			return i;
+		}
+		throw new IllegalStateException("bhitcount 필드가 없음");
+	}
+}
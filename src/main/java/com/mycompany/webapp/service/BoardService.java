@@ -1,46 +1,332 @@
 package com.mycompany.webapp.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mycompany.webapp.config.ReplicaRoutingDataSource;
 import com.mycompany.webapp.dao.BoardDao;
+import com.mycompany.webapp.dto.Battach;
 import com.mycompany.webapp.dto.Board;
 import com.mycompany.webapp.dto.Pager;
+import com.mycompany.webapp.storage.FileBattachStore;
 
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
 @Service
 public class BoardService {
    @Autowired
    private BoardDao boardsDao;
    
+   @Autowired
+   private BoardHitCounter hitCounter;
+   
+   @Autowired
+   private ApplicationEventPublisher eventPublisher;
+   
+   @Autowired
+   private BnoAllocator bnoAllocator;
+   
+   @Autowired
+   private BoardReadCache boardReadCache;
+   
+   @Autowired
+   private TransactionTemplate transactionTemplate;
+   
+   //파일 저장소에 먼저 저장된 첨부를 트랜잭션 결과에 맞춰 정리 (BattachStorage는 이 서비스를 참조하므로 파일 저장소를 직접 사용)
+   @Autowired
+   private FileBattachStore fileBattachStore;
+   
+   //배치 저장 시 flushStatements를 호출하는 행수
+   private static final int BATCH_FLUSH_SIZE = 1000;
+   
+   //배치 저장용 SqlSessionTemplate (관리 객체로 등록하면 매퍼 기본 실행기가 바뀌므로 여기서만 사용)
+   private SqlSessionTemplate batchSqlSessionTemplate;
+   
+   @Autowired
+   public void setSqlSessionFactory(SqlSessionFactory sqlSessionFactory) {
+      batchSqlSessionTemplate = new SqlSessionTemplate(sqlSessionFactory, ExecutorType.BATCH);
+   }
+   
+   //전체 게시물 수 (-1이면 아직 DB에서 읽지 않음)
+   //insert/delete 할 때 함께 바꾸고, 다른 경로로 바뀐 행수는 주기적으로 DB와 맞춤
+   private final AtomicInteger totalRows = new AtomicInteger(-1);
+   
+   @Transactional
    public int insert(Board board) {
-      return boardsDao.insert(board);
+      bindBattachFile(board);
+      int rows = boardsDao.insert(board);
+      //bversion 컬럼의 기본값
+      board.setBversion(0);
+      addTotalRows(rows);
+      eventPublisher.publishEvent(new BoardChangeEvent(board.getBno(), BoardChangeEvent.Operation.INSERT, board.getBtitle(), board.getBwriter(), 
+            board.getBattachoname() != null));
+      return rows;
+   }
+
+   //여러 게시물을 한 트랜잭션에서 JDBC 배치로 저장 (첨부는 저장하지 않음)
+   //bno는 BnoAllocator에서 미리 받아 두므로 행마다 시퀀스를 조회하지 않음
+   public int insertBatch(List<Board> boards, String bwriter) {
+      //번호 할당은 배치 트랜잭션 밖에서 (같은 트랜잭션에서 SIMPLE, BATCH 실행기를 섞어 쓸 수 없음)
+      int[] bnos = bnoAllocator.allocate(boards.size());
+      transactionTemplate.executeWithoutResult(status -> {
+         BoardDao batchDao = batchSqlSessionTemplate.getMapper(BoardDao.class);
+         for(int i=0; i<boards.size(); i++) {
+            Board board = boards.get(i);
+            board.setBno(bnos[i]);
+            board.setBwriter(bwriter);
+            batchDao.insertWithBno(board);
+            //드라이버에 쌓이는 배치 크기 제한
+            if((i + 1) % BATCH_FLUSH_SIZE == 0) {
+               batchSqlSessionTemplate.flushStatements();
+            }
+         }
+         //행마다 이벤트를 보내지 않고 한 번만 발행 (목록 캐시 무효화, 색인, 변경 알림을 한 번에 처리)
+         eventPublisher.publishEvent(new BoardBatchInsertEvent(List.copyOf(boards)));
+      });
+      addTotalRows(boards.size());
+      return boards.size();
    }
 
+   //목록을 볼 때마다 count(*)를 실행하지 않고 저장된 행수를 사용
+   //저장된 행수는 이후 insert/delete 할 때 증감하는 기준값이므로 primary에서 읽음
+   @Transactional(readOnly = true)
    public int getCount() {
-      return boardsDao.count();
+      int count = totalRows.get();
+      if(count < 0) {
+         totalRows.compareAndSet(-1, ReplicaRoutingDataSource.onPrimary(boardsDao::count));
+         count = totalRows.get();
+      }
+      return count;
+   }
+   
+   //저장된 행수를 DB의 행수로 맞춤 (복제본의 행수로 맞추면 방금 추가/삭제한 행이 빠지므로 primary에서 읽음)
+   @Scheduled(fixedDelayString = "${board.count.reconcile-interval:60000}")
+   @Transactional(readOnly = true)
+   public void reconcileCount() {
+      int count = ReplicaRoutingDataSource.onPrimary(boardsDao::count);
+      int old = totalRows.getAndSet(count);
+      if(old >= 0 && old != count) {
+         log.info("게시물 수 보정: " + old + " -> " + count);
+      }
+   }
+   
+   //행수가 로드된 경우에만 증감
+   private void addTotalRows(int delta) {
+      if(delta != 0) {
+         totalRows.updateAndGet(count -> count < 0 ? count : count + delta);
+      }
    }
 
+   //목록 캐시(BoardListCache)에 넣을 페이지 조회
+   //캐시는 다음 변경 전까지 유지되므로 복제 지연된 페이지가 캐시되지 않도록 primary에서 읽음
+   @Transactional(readOnly = true)
    public List<Board> getList(Pager pager) {
-      return boardsDao.selectByPage(pager);
+      return ReplicaRoutingDataSource.onPrimary(() -> boardsDao.selectByPage(pager));
+   }
+   
+   //lastBno 다음(더 오래된) 게시물 size 개 가져오기 (lastBno가 null이면 최신 게시물부터)
+   @Transactional(readOnly = true)
+   public List<Board> getListAfter(Integer lastBno, int size) {
+      return boardsDao.selectAfterBno(lastBno, size);
+   }
+   
+   //게시물 상세 JSON 얻기 (조회수 1 증가, 게시물이 없으면 조회수를 올리지 않고 null)
+   //캐시에 있으면 DB 조회와 JSON 변환 없이 현재 조회수만 끼워 넣음
+   //캐시에 넣을 게시물은 복제 지연된 내용이 캐시되지 않도록 primary에서 읽음
+   @Transactional(readOnly = true)
+   public BoardReadCache.Json getBoardJson(int bno) {
+      BoardReadCache.Entry entry = boardReadCache.get(bno);
+      if(entry == null) {
+         long generation = boardReadCache.getGeneration();
+         Board board = ReplicaRoutingDataSource.onPrimary(() -> boardsDao.selectByBno(bno));
+         if(board == null) {
+            return null;
+         }
+         entry = boardReadCache.put(bno, generation, board);
+      }
+      hitCounter.increment(bno);
+      return new BoardReadCache.Json(entry.toJson(hitCounter.getPending(bno)), entry.getBversion());
    }
    
-   public Board getBoard(int bno) {
-	  //bhitcount 올려준 후
-	  boardsDao.updateBhitcount(bno);
-	  //게시글 가져오기
-	  Board board = boardsDao.selectByBno(bno);
-      return board;
+   //게시물 작성자 얻기 (게시물이 없으면 null)
+   //권한 확인에 쓰므로 방금 쓴 게시물도 보이도록 primary에서 읽음
+   @Transactional(readOnly = true)
+   public String getBwriter(int bno) {
+      return ReplicaRoutingDataSource.onPrimary(() -> boardsDao.selectBwriterByBno(bno));
+   }
+   
+   //첨부 정보(이름, 종류, 저장 이름, 크기)만 얻기
+   @Transactional(readOnly = true)
+   public Battach getBattach(int bno) {
+      return boardsDao.selectBattachByBno(bno);
+   }
+   
+   //첨부 데이터를 힙에 올리지 않고 BLOB 스트림 그대로 handler에 넘겨줌
+   //커서(ResultSet)는 트랜잭션이 끝날 때까지 열려 있어야 하므로 트랜잭션 안에서 처리
+   //게시물이 없으면 false 리턴
+   @Transactional(readOnly = true)
+   public boolean readBattachdata(int bno, BattachHandler handler) throws IOException {
+      try (Cursor<Battach> cursor = boardsDao.selectBattachdataByBno(bno)) {
+         for (Battach battach : cursor) {
+            handler.handle(battach);
+            return true;
+         }
+      }
+      return false;
+   }
+
+   //모든 게시물의 번호/제목/내용을 bno 순서로 한 행씩 전달 (검색 색인 생성용)
+   @Transactional(readOnly = true)
+   public void scanBoards(Consumer<Board> consumer) {
+      try (Cursor<Board> cursor = boardsDao.selectAllForIndex()) {
+         cursor.forEach(consumer);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
    }
 
-   public int update(Board board) {
-      return boardsDao.updateByBno(board);
+   //bdate가 from 이상, to 미만인 게시물을 bno 순서로 한 행씩 전달 (첨부 데이터 제외, null이면 범위 제한 없음)
+   //커서로 읽으므로 게시물 수와 상관없이 메모리 사용량이 일정함
+   @Transactional(readOnly = true)
+   public void exportBoards(LocalDateTime from, LocalDateTime to, BoardHandler handler) throws IOException {
+      try (Cursor<Board> cursor = boardsDao.selectForExport(from, to)) {
+         for (Board board : cursor) {
+            handler.handle(board);
+         }
+      }
    }
 
+   //게시물 수정 후 수정된 게시물 리턴 (게시물이 없거나 버전이 다르면 null)
+   //바뀐 행의 값은 RETURNING INTO로 같은 호출에서 받으므로 다시 조회하지 않고, 조회수도 올리지 않음
+   //expectedVersion이 null이 아니면 bversion이 같을 때만 수정 (낙관적 잠금)
+   @Transactional
+   public Board update(Board board, Integer expectedVersion) {
+      Map<String, Object> params = new HashMap<>();
+      params.put("bno", board.getBno());
+      params.put("btitle", board.getBtitle());
+      params.put("bcontent", board.getBcontent());
+      params.put("expectedVersion", expectedVersion);
+      bindBattachFile(board);
+      int updatedRows = boardsDao.updateByBnoReturning(params);
+      //RETURNING INTO가 없는 DB(부하 테스트의 H2)는 rows를 채우지 않으므로 수정한 행을 같은 트랜잭션에서 다시 조회
+      if(!params.containsKey("rows")) {
+         params.put("rows", updatedRows);
+         if(updatedRows > 0) {
+            params.putAll(boardsDao.selectUpdatedByBno(board.getBno()));
+         }
+      }
+      Integer rows = (Integer) params.get("rows");
+      if(rows == null || rows == 0) {
+         discardBattachFile(board);
+         return null;
+      }
+      //첨부가 넘어왔으면 같은 트랜잭션에서 일반 UPDATE로 저장 (위의 UPDATE가 행을 잠그고 버전을 확인했음)
+      //돌려받은 첨부 정보 대신 저장한 값을 응답 (battachstatus는 조회할 때처럼 작업 ID를 PENDING으로 바꿈)
+      if(board.getBattachoname() != null) {
+         boardsDao.updateBattachdataByBno(board);
+         params.put("battachoname", board.getBattachoname());
+         params.put("battachtype", board.getBattachtype());
+         params.put("battachsname", board.getBattachsname());
+         params.put("battachstatus", board.getBattachstatus() == null ? null : "PENDING");
+      }
+      //보낸 값과 돌려받은 값을 합침
+      Board updated = new Board();
+      updated.setBno(board.getBno());
+      updated.setBtitle(board.getBtitle());
+      updated.setBcontent(board.getBcontent());
+      updated.setBwriter((String) params.get("bwriter"));
+      updated.setBdate((Date) params.get("bdate"));
+      //DB의 조회수에 아직 반영되지 않은 조회수를 더함
+      updated.setBhitcount((Integer) params.get("bhitcount") + (int) hitCounter.getPending(board.getBno()));
+      updated.setBattachoname((String) params.get("battachoname"));
+      updated.setBattachtype((String) params.get("battachtype"));
+      updated.setBattachsname((String) params.get("battachsname"));
+      updated.setBattachstatus((String) params.get("battachstatus"));
+      updated.setBversion((Integer) params.get("bversion"));
+      eventPublisher.publishEvent(new BoardChangeEvent(updated.getBno(), BoardChangeEvent.Operation.UPDATE, updated.getBtitle(), updated.getBwriter(), 
+            board.getBattachoname() != null));
+      return updated;
+   }
+
+   //첨부만 바꾸기 (조각 업로드로 받은 첨부, board.bwriter가 작성자인 게시물만 바뀌고 아니면 0)
+   @Transactional
+   public int updateBattach(Board board) {
+      bindBattachFile(board);
+      int rows = boardsDao.updateBattachByBno(board);
+      if(rows > 0) {
+         eventPublisher.publishEvent(new BoardChangeEvent(board.getBno(), BoardChangeEvent.Operation.UPDATE));
+      } else {
+         discardBattachFile(board);
+      }
+      return rows;
+   }
+   
+   //백그라운드에서 저장한 첨부 반영 (board.battachstatus는 작업 ID, 그 사이 첨부가 바뀌었거나 게시물이 삭제되었으면 0)
+   //저장한 첨부 파일은 재시도에 다시 쓰므로 반영하지 못한 파일의 정리는 BattachPipeline이 함
+   @Transactional
+   public int completeBattach(Board board) {
+      int rows = boardsDao.updatePendingBattach(board);
+      if(rows > 0) {
+         eventPublisher.publishEvent(new BoardChangeEvent(board.getBno(), BoardChangeEvent.Operation.UPDATE));
+      }
+      return rows;
+   }
+   
+   //백그라운드 첨부 저장 실패 기록
+   @Transactional
+   public int failBattach(int bno, String jobId) {
+      int rows = boardsDao.updatePendingBattachFailed(bno, jobId);
+      if(rows > 0) {
+         eventPublisher.publishEvent(new BoardChangeEvent(bno, BoardChangeEvent.Operation.UPDATE));
+      }
+      return rows;
+   }
+   
+   public Integer getBnoByBattachJob(String jobId) {
+      return boardsDao.selectBnoByBattachstatus(jobId);
+   }
+   
+   @Transactional
    public int delete(int bno) {
-      return boardsDao.deleteByBno(bno);
+      hitCounter.remove(bno);
+      int rows = boardsDao.deleteByBno(bno);
+      addTotalRows(-rows);
+      if(rows > 0) {
+         eventPublisher.publishEvent(new BoardChangeEvent(bno, BoardChangeEvent.Operation.DELETE));
+      }
+      return rows;
+   }
+   
+   //파일 저장소에 저장한 첨부를 현재 트랜잭션과 연결 (롤백되면 참조하는 게시물이 없는 파일 삭제)
+   private void bindBattachFile(Board board) {
+      if(board.getBattachsname() != null) {
+         fileBattachStore.bindToTransaction(board.getBattachsname());
+      }
    }
    
-   public int addHitcount(int bno) {
-      return boardsDao.updateBhitcount(bno);
+   //반영할 게시물이 없었으면 트랜잭션이 끝난 뒤 파일 삭제
+   private void discardBattachFile(Board board) {
+      if(board.getBattachsname() != null) {
+         fileBattachStore.discardAfterCompletion(board.getBattachsname());
+      }
    }
 }
\ No newline at end of file
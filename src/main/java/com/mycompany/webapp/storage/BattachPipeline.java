@@ -0,0 +1,283 @@
+package com.mycompany.webapp.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.mycompany.webapp.dto.Board;
+import com.mycompany.webapp.service.BoardService;
+
+import lombok.extern.slf4j.Slf4j;
+
+//첨부 데이터를 게시물 저장(커밋) 후 백그라운드에서 저장하는 파이프라인 (battach.async.enabled=true 일 때)
+//- 요청 스레드는 업로드를 battach.async.dir의 임시 파일로 옮기고, 첨부 정보와 battachstatus(작업 ID)만 저장한 뒤 바로 응답
+//  (게시물 조회 시 battachstatus는 "PENDING", 다운로드는 503 + Retry-After)
+//- 작업 스레드(battach.async.threads 개)가 첨부 저장소에 저장하고 battachstatus를 null로 바꿈
+//  battachstatus가 그 작업 ID인 경우에만 바꾸므로, 그 사이 첨부가 다시 바뀌었거나 게시물이 삭제되었으면 저장한 파일과 함께 버림
+//- 실패하면 battach.async.retry-delay * 시도 횟수 후에 다시 시도하고, max-attempts번 실패하면 battachstatus를 FAILED로 바꿈
+//  파일 저장소에 저장한 뒤 반영만 실패했으면 재시도는 저장한 파일을 그대로 쓰고, 마지막 시도까지 실패하면 파일을 삭제함
+//- 대기 중인 작업이 queue-capacity 개면 새 첨부는 파이프라인을 쓰지 않고 요청 스레드에서 저장함 (메모리, 디스크 사용량 제한)
+//- 서버가 중지되어 처리하지 못한 임시 파일은 다시 시작할 때 이어서 처리
+@Slf4j
+@Component
+public class BattachPipeline {
+	private static final String SPOOL_SUFFIX = ".spool";
+
+	//저장 작업 (임시 파일 이름은 {작업 ID}.spool)
+	public static class Job {
+		private final String jobId;
+		private final Path spool;
+		private final long size;
+		private int bno;
+		private int attempts;
+		//파일 저장소에 저장했지만 아직 게시물에 반영하지 못한 파일 (재시도할 때 다시 저장하지 않음)
+		private String battachsname;
+
+		private Job(String jobId, Path spool, long size) {
+			this.jobId = jobId;
+			this.spool = spool;
+			this.size = size;
+		}
+	}
+
+	@Autowired
+	private BattachStorage battachStorage;
+
+	@Autowired
+	private BoardService boardService;
+
+	private final boolean enabled;
+	private final Path spoolDir;
+	private final int queueCapacity;
+	private final int maxAttempts;
+	private final long retryDelay;
+	private final ThreadPoolExecutor executor;
+	private final ScheduledExecutorService retryScheduler;
+	//파이프라인에 들어온 작업 수 (대기, 실행, 재시도 대기 포함)
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final LongAdder accepted = new LongAdder();
+	private final LongAdder fallbacks = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder superseded = new LongAdder();
+	private final LongAdder retried = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder storeNanos = new LongAdder();
+
+	public BattachPipeline(
+			@Value("${battach.async.enabled:false}") boolean enabled,
+			@Value("${battach.async.dir:battach/pending}") String dir,
+			@Value("${battach.async.threads:1}") int threads,
+			@Value("${battach.async.queue-capacity:50}") int queueCapacity,
+			@Value("${battach.async.max-attempts:3}") int maxAttempts,
+			@Value("${battach.async.retry-delay:1000}") long retryDelay) {
+		this.enabled = enabled;
+		this.spoolDir = Paths.get(dir).toAbsolutePath().normalize();
+		this.queueCapacity = queueCapacity;
+		this.maxAttempts = maxAttempts;
+		this.retryDelay = retryDelay;
+		//작업 수는 inFlight로 제한하므로 큐는 따로 제한하지 않음 (재시도 작업이 다시 들어갈 자리가 항상 있음)
+		AtomicInteger threadNo = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "battach-pipeline-" + threadNo.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "battach-pipeline-retry");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	//업로드된 첨부를 임시 파일로 옮기고 board에 첨부 정보와 작업 ID(battachstatus)를 설정
+	//파이프라인을 쓰지 않거나 대기 작업이 가득 차면 null (요청 스레드에서 저장해야 함)
+	public Job prepare(Board board) throws IOException {
+		MultipartFile mf = board.getBattach();
+		if(!enabled || mf == null || mf.isEmpty()) {
+			return null;
+		}
+		if(inFlight.incrementAndGet() > queueCapacity) {
+			inFlight.decrementAndGet();
+			fallbacks.increment();
+			return null;
+		}
+		try {
+			Files.createDirectories(spoolDir);
+			String jobId = UUID.randomUUID().toString();
+			Job job = new Job(jobId, spoolDir.resolve(jobId + SPOOL_SUFFIX), mf.getSize());
+			//멀티파트 임시 파일은 요청이 끝나면 지워지므로 옮겨 둠 (같은 파일 시스템이면 이름만 바뀜)
+			mf.transferTo(new File(job.spool.toString()));
+			board.setBattachoname(mf.getOriginalFilename());
+			board.setBattachtype(mf.getContentType());
+			board.setBattachsname(null);
+			board.setBattachcontent(null);
+			board.setBattachstatus(jobId);
+			accepted.increment();
+			return job;
+		} catch(IOException | RuntimeException e) {
+			inFlight.decrementAndGet();
+			throw e;
+		}
+	}
+
+	//게시물이 커밋된 후 저장 작업 시작
+	public void submit(Job job, int bno) {
+		job.bno = bno;
+		execute(job);
+	}
+
+	//게시물 저장이 실패했을 때 임시 파일 삭제
+	public void discard(Job job) {
+		finish(job);
+	}
+
+	private void execute(Job job) {
+		try {
+			executor.execute(() -> run(job));
+		} catch(RejectedExecutionException e) {
+			//서버 중지 중: 임시 파일은 남겨 두고 다시 시작할 때 처리
+			log.info("첨부 저장 작업 중단: " + job.bno);
+		}
+	}
+
+	private void run(Job job) {
+		job.attempts++;
+		long start = System.nanoTime();
+		Board board = new Board();
+		board.setBno(job.bno);
+		board.setBattachstatus(job.jobId);
+		InputStream is = null;
+		try {
+			if(job.battachsname != null) {
+				board.setBattachsname(job.battachsname);
+			} else {
+				//BLOB 저장소는 스트림을 반영할 때 읽으므로 반영이 끝날 때까지 닫지 않음
+				is = Files.newInputStream(job.spool);
+				battachStorage.store(board, is, job.size);
+				job.battachsname = board.getBattachsname();
+			}
+			int rows = boardService.completeBattach(board);
+			job.battachsname = null;
+			if(rows == 0) {
+				battachStorage.discard(board);
+				superseded.increment();
+			} else {
+				battachStorage.release(board);
+				completed.increment();
+			}
+			storeNanos.add(System.nanoTime() - start);
+			finish(job);
+		} catch(Exception e) {
+			if(job.attempts < maxAttempts) {
+				retried.increment();
+				log.warn("첨부 저장 실패, 다시 시도: " + job.bno + " (" + job.attempts + "/" + maxAttempts + ") " + e);
+				retryScheduler.schedule(() -> execute(job), retryDelay * job.attempts, TimeUnit.MILLISECONDS);
+			} else {
+				log.error("첨부 저장 실패: " + job.bno, e);
+				failed.increment();
+				try {
+					boardService.failBattach(job.bno, job.jobId);
+				} catch(Exception e2) {
+					log.error("첨부 저장 실패 기록 실패: " + job.bno, e2);
+				}
+				//반영하지 못한 파일 삭제 (참조하는 게시물이 있으면 지우지 않음)
+				if(job.battachsname != null) {
+					battachStorage.discard(board);
+					job.battachsname = null;
+				}
+				finish(job);
+			}
+		} finally {
+			if(is != null) {
+				try {
+					is.close();
+				} catch(IOException e) {
+					log.error(e.toString());
+				}
+			}
+		}
+	}
+
+	private void finish(Job job) {
+		inFlight.decrementAndGet();
+		try {
+			Files.deleteIfExists(job.spool);
+		} catch(IOException e) {
+			log.error("첨부 임시 파일 삭제 실패: " + job.spool, e);
+		}
+	}
+
+	//이전 실행에서 처리하지 못한 임시 파일을 이어서 처리
+	//(해당 작업 ID로 저장된 게시물이 없으면 커밋되지 않았거나 이미 바뀐 것이므로 삭제)
+	@EventListener(ApplicationReadyEvent.class)
+	public void recover() throws IOException {
+		if(!Files.isDirectory(spoolDir)) {
+			return;
+		}
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir, "*" + SPOOL_SUFFIX)) {
+			for(Path file : files) {
+				String fileName = file.getFileName().toString();
+				String jobId = fileName.substring(0, fileName.length() - SPOOL_SUFFIX.length());
+				Integer bno = boardService.getBnoByBattachJob(jobId);
+				if(bno == null) {
+					Files.deleteIfExists(file);
+					continue;
+				}
+				log.info("이전 실행에서 남은 첨부 저장 작업: " + bno);
+				inFlight.incrementAndGet();
+				submit(new Job(jobId, file, Files.size(file)), bno);
+			}
+		}
+	}
+
+	@PreDestroy
+	public void destroy() throws InterruptedException {
+		retryScheduler.shutdownNow();
+		executor.shutdown();
+		executor.awaitTermination(5, TimeUnit.SECONDS);
+	}
+
+	public Map<String, Object> getStats() {
+		long count = completed.sum() + superseded.sum();
+		Map<String, Object> map = new HashMap<>();
+		map.put("enabled", enabled);
+		map.put("queueDepth", executor.getQueue().size());
+		map.put("inFlight", inFlight.get());
+		map.put("queueCapacity", queueCapacity);
+		map.put("accepted", accepted.sum());
+		map.put("fallbacks", fallbacks.sum());
+		map.put("completed", completed.sum());
+		map.put("superseded", superseded.sum());
+		map.put("retried", retried.sum());
+		map.put("failed", failed.sum());
+		map.put("avgStoreMillis", count == 0 ? 0 : storeNanos.sum() / count / 1_000_000.0);
+		return map;
+	}
+}
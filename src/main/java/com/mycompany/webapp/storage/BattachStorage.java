@@ -0,0 +1,58 @@
+package com.mycompany.webapp.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.mycompany.webapp.dto.Battach;
+import com.mycompany.webapp.dto.Board;
+
+//첨부 저장소 선택
+//새 첨부는 battach.store 설정(blob, file)에 따라 저장하고,
+//저장된 첨부는 battachsname 유무로 저장소를 구분해서 읽음 (설정을 바꿔도 기존 첨부를 읽을 수 있음)
+@Component
+public class BattachStorage {
+	@Autowired
+	private BlobBattachStore blobBattachStore;
+	
+	@Autowired
+	private FileBattachStore fileBattachStore;
+	
+	@Value("${battach.store:blob}")
+	private String storeName;
+	
+	//업로드된 첨부 데이터를 설정된 저장소에 저장
+	public void store(Board board, InputStream is, long length) throws IOException {
+		if("file".equals(storeName)) {
+			fileBattachStore.store(board, is, length);
+		} else {
+			blobBattachStore.store(board, is, length);
+		}
+	}
+	
+	//store로 저장한 첨부를 게시물에 반영(커밋)했을 때 호출 (파일 저장소의 lease 반납)
+	public void release(Board board) {
+		if(board.getBattachsname() != null) {
+			fileBattachStore.release(board.getBattachsname());
+		}
+	}
+	
+	//store로 저장한 첨부를 게시물에 반영하지 못했을 때 저장된 파일 삭제
+	//BLOB 저장소는 게시물 행에 함께 저장되므로 반영하지 못했으면 남는 데이터가 없음
+	public void discard(Board board) {
+		if(board.getBattachsname() != null) {
+			fileBattachStore.discard(board.getBattachsname());
+		}
+	}
+	
+	//첨부가 저장된 저장소 얻기
+	public BattachStore getStore(Battach battach) {
+		if(battach.getBattachsname() != null) {
+			return fileBattachStore;
+		}
+		return blobBattachStore;
+	}
+}
@@ -0,0 +1,30 @@
+package com.mycompany.webapp.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.mycompany.webapp.dto.Battach;
+import com.mycompany.webapp.dto.Board;
+import com.mycompany.webapp.service.BattachHandler;
+
+//첨부 데이터 저장소
+//BLOB 컬럼에 저장하는 BlobBattachStore(기본)와 로컬 디렉토리에 저장하는 FileBattachStore가 있음
+public interface BattachStore {
+	//업로드된 첨부 데이터를 저장하고, board 객체에 저장 정보(battachcontent 또는 battachsname)를 설정
+	//스트림은 저장소가 닫음 (BLOB 저장소는 DB 저장 후 battachcontent를 통해 닫힘)
+	void store(Board board, InputStream is, long length) throws IOException;
+	
+	//저장된 첨부 데이터의 크기
+	long getSize(Battach battach) throws IOException;
+	
+	//저장된 첨부 데이터 중 start 위치부터 count 바이트를 응답 바디로 출력
+	void transfer(Battach battach, long start, long count, 
+			HttpServletRequest request, HttpServletResponse response) throws IOException;
+	
+	//저장된 첨부 데이터를 스트림으로 읽음 (handler가 실행되는 동안만 battachstream이 열려 있음)
+	//첨부 데이터가 없으면 handler를 실행하지 않음
+	void read(Battach battach, BattachHandler handler) throws IOException;
+}
@@ -0,0 +1,358 @@
+package com.mycompany.webapp.storage;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.mycompany.webapp.dto.Battach;
+import com.mycompany.webapp.service.BoardChangeEvent;
+import com.mycompany.webapp.service.BoardService;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+//이미지 첨부의 썸네일 (가로, 세로 최대 battach.thumbnail.size 픽셀의 JPEG)
+//- 게시물 추가/수정이 커밋되면 썸네일 전용 스레드 풀에서 미리 만들어 battach.thumbnail.dir에 {bno}.jpg로 저장
+//- 최근 사용한 썸네일은 메모리(최대 battach.thumbnail.cache-entries 개)에도 보관
+//- 아직 만들어지지 않은 썸네일을 요청하면 풀에 생성만 맡기고 기다리지 않음 (요청 스레드가 DB 허가를 쥔 채 기다리지 않도록)
+//- 원본은 긴 쪽 기준으로 서브샘플링해서 읽으므로 큰 이미지도 원본 크기만큼 메모리를 쓰지 않음
+//- 가로*세로가 battach.thumbnail.max-pixels 를 넘는 이미지는 읽지 않음 (썸네일 없음)
+@Slf4j
+@Component
+public class BattachThumbnails {
+	//썸네일
+	@Getter
+	public static class Thumbnail {
+		private final byte[] data;
+		private final String etag;
+		
+		private Thumbnail(byte[] data, String etag) {
+			this.data = data;
+			this.etag = etag;
+		}
+	}
+	
+	private final Path baseDir;
+	private final int size;
+	private final int cacheEntries;
+	private final long maxPixels;
+	private final ThreadPoolExecutor executor;
+	
+	@Autowired
+	private BoardService boardService;
+	
+	@Autowired
+	private BattachStorage battachStorage;
+	
+	//LRU 순서로 유지
+	private final LinkedHashMap<Integer, Thumbnail> cache;
+	//생성 중인 썸네일 (같은 게시물의 썸네일을 동시에 여러 번 만들지 않음)
+	private final ConcurrentHashMap<Integer, CompletableFuture<Thumbnail>> inProgress = new ConcurrentHashMap<>();
+	//게시물별 첨부 버전 (생성 도중 첨부가 바뀌면 이전 첨부로 만든 썸네일은 버림)
+	private final ConcurrentHashMap<Integer, Integer> versions = new ConcurrentHashMap<>();
+	
+	private final LongAdder generated = new LongAdder();
+	private final LongAdder failed = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder oversized = new LongAdder();
+	private final LongAdder generateNanos = new LongAdder();
+	
+	public BattachThumbnails(
+			@Value("${battach.thumbnail.dir:battach/thumbnail}") String dir,
+			@Value("${battach.thumbnail.size:200}") int size,
+			@Value("${battach.thumbnail.threads:2}") int threads,
+			@Value("${battach.thumbnail.queue-capacity:100}") int queueCapacity,
+			@Value("${battach.thumbnail.cache-entries:500}") int cacheEntries,
+			@Value("${battach.thumbnail.max-pixels:50000000}") long maxPixels) {
+		this.baseDir = Paths.get(dir).toAbsolutePath().normalize();
+		this.size = size;
+		this.cacheEntries = cacheEntries;
+		this.maxPixels = maxPixels;
+		AtomicInteger threadNo = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, 
+				new ArrayBlockingQueue<>(queueCapacity), 
+				runnable -> {
+					Thread thread = new Thread(runnable, "battach-thumbnail-" + threadNo.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, 
+				new ThreadPoolExecutor.AbortPolicy());
+		cache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Thumbnail> eldest) {
+				return size() > BattachThumbnails.this.cacheEntries;
+			}
+		};
+	}
+	
+	//게시물의 썸네일 얻기 (이미지 첨부가 아니거나 아직 만들어지지 않았으면 null)
+	public Thumbnail get(int bno) {
+		Thumbnail thumbnail;
+		synchronized(cache) {
+			thumbnail = cache.get(bno);
+		}
+		if(thumbnail != null) {
+			return thumbnail;
+		}
+		try {
+			//저장된 썸네일이 있으면 읽고, 없으면 생성만 맡김 (다음 요청부터 썸네일 응답)
+			thumbnail = load(bno);
+			if(thumbnail == null) {
+				submit(bno);
+			}
+		} catch(RejectedExecutionException e) {
+			log.info("썸네일 생성 대기열이 가득 참: " + bno);
+			return null;
+		} catch(IOException e) {
+			log.error("썸네일 얻기 실패: " + bno + " " + e);
+			return null;
+		}
+		return thumbnail;
+	}
+	
+	//첨부가 바뀌면(커밋 후) 이전 썸네일을 지우고 새로 만듦 (제목, 내용만 바뀐 수정은 썸네일을 그대로 둠)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onBoardChange(BoardChangeEvent event) {
+		int bno = event.getBno();
+		switch(event.getOperation()) {
+			case INSERT:
+			case UPDATE:
+				if(!event.isBattachChanged()) {
+					break;
+				}
+				invalidate(bno);
+				try {
+					submit(bno);
+				} catch(RejectedExecutionException e) {
+					//요청할 때 다시 만들어짐
+					log.info("썸네일 생성 대기열이 가득 참: " + bno);
+				}
+				break;
+			case DELETE:
+				invalidate(bno);
+				versions.remove(bno);
+				break;
+			default:
+		}
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+	
+	//썸네일 생성 통계
+	public Map<String, Object> getStats() {
+		long count = generated.sum();
+		Map<String, Object> stats = new HashMap<>();
+		synchronized(cache) {
+			stats.put("cached", cache.size());
+		}
+		stats.put("queueDepth", executor.getQueue().size());
+		stats.put("active", executor.getActiveCount());
+		stats.put("generated", count);
+		stats.put("failed", failed.sum());
+		stats.put("rejected", rejected.sum());
+		stats.put("oversized", oversized.sum());
+		stats.put("avgGenerateMillis", count == 0 ? 0 : generateNanos.sum() / count / 1_000_000);
+		return stats;
+	}
+	
+	//----------------------------------------------------------------------------------
+	
+	private CompletableFuture<Thumbnail> submit(int bno) {
+		int version = versions.getOrDefault(bno, 0);
+		try {
+			return inProgress.computeIfAbsent(bno, key -> {
+				CompletableFuture<Thumbnail> future = CompletableFuture.supplyAsync(() -> generate(bno, version), executor);
+				future.whenComplete((result, error) -> inProgress.remove(bno, future));
+				return future;
+			});
+		} catch(RejectedExecutionException e) {
+			rejected.increment();
+			throw e;
+		}
+	}
+	
+	private void invalidate(int bno) {
+		versions.merge(bno, 1, Integer::sum);
+		inProgress.remove(bno);
+		synchronized(cache) {
+			cache.remove(bno);
+		}
+		try {
+			Files.deleteIfExists(path(bno));
+		} catch(IOException e) {
+			log.error("썸네일 삭제 실패: " + bno + " " + e);
+		}
+	}
+	
+	//디스크에 저장된 썸네일 읽기 (없으면 null)
+	private Thumbnail load(int bno) throws IOException {
+		Path path = path(bno);
+		if(!Files.exists(path)) {
+			return null;
+		}
+		Thumbnail thumbnail;
+		try {
+			thumbnail = new Thumbnail(Files.readAllBytes(path), etag(bno, Files.getLastModifiedTime(path).toMillis()));
+		} catch(NoSuchFileException e) {
+			return null;
+		}
+		synchronized(cache) {
+			cache.put(bno, thumbnail);
+		}
+		return thumbnail;
+	}
+	
+	//원본 이미지를 읽어 썸네일을 만들고 저장 (이미지 첨부가 아니면 null)
+	private Thumbnail generate(int bno, int version) {
+		long start = System.nanoTime();
+		try {
+			Battach battach = boardService.getBattach(bno);
+			if(battach == null || battach.getBattachtype() == null || !battach.getBattachtype().startsWith("image/")) {
+				return null;
+			}
+			//백그라운드에서 저장 중인 첨부는 저장이 끝나면(UPDATE 이벤트) 다시 만듦
+			if(battach.getBattachstatus() != null) {
+				return null;
+			}
+			BufferedImage[] image = new BufferedImage[1];
+			battachStorage.getStore(battach).read(battach, data -> image[0] = decode(data.getBattachstream()));
+			if(image[0] == null) {
+				return null;
+			}
+			byte[] jpeg = encode(resize(image[0]));
+			//생성 도중 첨부가 바뀌었으면 버림
+			if(versions.getOrDefault(bno, 0) != version) {
+				return null;
+			}
+			Files.createDirectories(baseDir);
+			Path tempFile = Files.createTempFile(baseDir, "thumbnail", ".tmp");
+			Path target = path(bno);
+			try {
+				Files.write(tempFile, jpeg);
+				Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} finally {
+				Files.deleteIfExists(tempFile);
+			}
+			//저장하는 사이에 첨부가 바뀌었으면 지움
+			if(versions.getOrDefault(bno, 0) != version) {
+				Files.deleteIfExists(target);
+				return null;
+			}
+			Thumbnail thumbnail = new Thumbnail(jpeg, etag(bno, Files.getLastModifiedTime(target).toMillis()));
+			synchronized(cache) {
+				if(versions.getOrDefault(bno, 0) == version) {
+					cache.put(bno, thumbnail);
+				}
+			}
+			generated.increment();
+			generateNanos.add(System.nanoTime() - start);
+			return thumbnail;
+		} catch(IOException e) {
+			failed.increment();
+			throw new UncheckedIOException(e);
+		} catch(RuntimeException e) {
+			failed.increment();
+			throw e;
+		}
+	}
+	
+	//긴 쪽이 썸네일 크기의 2배 이상이 되도록 서브샘플링하면서 이미지 읽기 (읽을 수 없는 형식이거나 너무 크면 null)
+	private BufferedImage decode(InputStream is) throws IOException {
+		try (ImageInputStream iis = ImageIO.createImageInputStream(is)) {
+			if(iis == null) {
+				return null;
+			}
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+			if(!readers.hasNext()) {
+				return null;
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(iis, true, true);
+				int width = reader.getWidth(0);
+				int height = reader.getHeight(0);
+				//픽셀 수가 너무 많은 이미지는 서브샘플링해도 디코딩 시간이 오래 걸리므로 읽지 않음
+				if((long) width * height > maxPixels) {
+					oversized.increment();
+					log.info("썸네일을 만들기에 너무 큰 이미지: " + width + "x" + height);
+					return null;
+				}
+				//resize()는 긴 쪽을 size로 줄이므로 긴 쪽 기준 (짧은 쪽 기준이면 긴 이미지가 덜 줄어듦)
+				int subsampling = Math.max(1, Math.max(width, height) / (size * 2));
+				ImageReadParam param = reader.getDefaultReadParam();
+				param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+				return reader.read(0, param);
+			} finally {
+				reader.dispose();
+			}
+		}
+	}
+	
+	//가로, 세로 중 긴 쪽이 size가 되도록 비율을 유지하며 축소 (작은 이미지는 그대로)
+	private BufferedImage resize(BufferedImage image) {
+		double scale = Math.min(1.0, Math.min((double) size / image.getWidth(), (double) size / image.getHeight()));
+		int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+		int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+		//JPEG는 투명도를 지원하지 않으므로 RGB로 그림
+		BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = thumbnail.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+		} finally {
+			g.dispose();
+		}
+		return thumbnail;
+	}
+	
+	private byte[] encode(BufferedImage image) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "jpg", out);
+		return out.toByteArray();
+	}
+	
+	private Path path(int bno) {
+		return baseDir.resolve(bno + ".jpg");
+	}
+	
+	private String etag(int bno, long lastModified) {
+		return "\"" + bno + "-" + lastModified + "\"";
+	}
+}
@@ -0,0 +1,282 @@
+package com.mycompany.webapp.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+//큰 첨부를 여러 조각으로 나눠 올리는 업로드 세션 (시작 -> 조각 추가(offset) -> 완료)
+//- 조각은 battach.upload.dir의 임시 파일({uploadId}.part)에 FileChannel 위치 쓰기로 바로 기록 (조각 전체를 메모리에 두지 않음)
+//- 조각마다 SHA-256을 확인하고, 확인된 위치(offset)까지만 받은 것으로 인정
+//  (연결이 끊기면 클라이언트는 세션의 offset을 조회해서 그 위치부터 다시 보냄)
+//- 완료하면 임시 파일을 스트림으로 첨부 저장소에 넘기고 삭제
+//- battach.upload.expire 동안 조각이 오지 않은 세션은 임시 파일과 함께 삭제
+//- 세션은 메모리에만 있으므로 서버가 다시 시작되면 남은 임시 파일을 지움
+@Slf4j
+@Component
+public class BattachUploads {
+	//요청 바디를 임시 파일로 복사할 때 사용하는 버퍼 크기
+	private static final int COPY_BUFFER_SIZE = 65536;
+	private static final String SPOOL_SUFFIX = ".part";
+
+	//업로드 세션
+	@Getter
+	public static class Upload {
+		private final String uploadId;
+		private final String mid;
+		private final String battachoname;
+		private final String battachtype;
+		private final long size;
+		private final Path spool;
+		//여기까지 받은 데이터가 확인됨 (다음 조각의 시작 위치)
+		private volatile long offset;
+		private volatile long lastAccess = System.currentTimeMillis();
+		//완료 처리 중에는 조각 추가와 만료 삭제를 하지 않음 (upload 객체로 동기화)
+		private boolean completing;
+
+		private Upload(String uploadId, String mid, String battachoname, String battachtype, long size, Path spool) {
+			this.uploadId = uploadId;
+			this.mid = mid;
+			this.battachoname = battachoname;
+			this.battachtype = battachtype;
+			this.size = size;
+			this.spool = spool;
+		}
+	}
+
+	private final Path spoolDir;
+	private final long maxSize;
+	private final long maxChunkSize;
+	private final int maxUploads;
+	private final long expireMillis;
+	private final Map<String, Upload> uploads = new ConcurrentHashMap<>();
+
+	private final LongAdder initiated = new LongAdder();
+	private final LongAdder chunks = new LongAdder();
+	private final LongAdder bytes = new LongAdder();
+	private final LongAdder checksumFailures = new LongAdder();
+	private final LongAdder completed = new LongAdder();
+	private final LongAdder expired = new LongAdder();
+
+	public BattachUploads(
+			@Value("${battach.upload.dir:battach/upload}") String dir,
+			@Value("${battach.upload.max-size:2147483648}") long maxSize,
+			@Value("${battach.upload.max-chunk-size:8388608}") long maxChunkSize,
+			@Value("${battach.upload.max-uploads:1000}") int maxUploads,
+			@Value("${battach.upload.expire:3600000}") long expireMillis) {
+		this.spoolDir = Paths.get(dir).toAbsolutePath().normalize();
+		this.maxSize = maxSize;
+		this.maxChunkSize = maxChunkSize;
+		this.maxUploads = maxUploads;
+		this.expireMillis = expireMillis;
+	}
+
+	//이전 실행에서 남은 임시 파일 삭제
+	@PostConstruct
+	public void init() throws IOException {
+		Files.createDirectories(spoolDir);
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(spoolDir, "*" + SPOOL_SUFFIX)) {
+			for(Path file : files) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	//업로드 시작 (빈 임시 파일 생성)
+	public Upload initiate(String mid, String battachoname, String battachtype, long size) throws IOException {
+		if(size <= 0 || size > maxSize) {
+			throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "첨부는 1~" + maxSize + "바이트까지 올릴 수 있습니다.");
+		}
+		if(uploads.size() >= maxUploads) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "진행 중인 업로드가 너무 많습니다.");
+		}
+		String uploadId = UUID.randomUUID().toString();
+		Path spool = spoolDir.resolve(uploadId + SPOOL_SUFFIX);
+		Files.createFile(spool);
+		Upload upload = new Upload(uploadId, mid, battachoname, battachtype, size, spool);
+		uploads.put(uploadId, upload);
+		initiated.increment();
+		return upload;
+	}
+
+	//업로드 세션 얻기 (없거나 다른 회원의 세션이면 404)
+	public Upload get(String uploadId, String mid) {
+		Upload upload = uploads.get(uploadId);
+		if(upload == null || !upload.mid.equals(mid)) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "업로드 세션이 없습니다.");
+		}
+		return upload;
+	}
+
+	//offset 위치부터 length 바이트의 조각을 임시 파일에 기록하고, 확인된 다음 위치를 리턴
+	//offset은 이미 받은 위치 이하여야 함 (같은 조각을 다시 보내면 덮어씀)
+	//조각의 SHA-256이 sha256과 다르면 받은 위치를 늘리지 않음
+	public long append(Upload upload, long offset, InputStream is, long length, String sha256) throws IOException {
+		if(length <= 0 || length > maxChunkSize) {
+			throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "조각은 1~" + maxChunkSize + "바이트까지 보낼 수 있습니다.");
+		}
+		if(sha256 == null || !sha256.matches("[0-9a-fA-F]{64}")) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "조각의 SHA-256이 필요합니다.");
+		}
+		synchronized(upload) {
+			if(upload.completing || uploads.get(upload.uploadId) != upload) {
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "완료되었거나 취소된 업로드입니다.");
+			}
+			if(offset < 0 || offset > upload.offset) {
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "offset은 " + upload.offset + " 이하여야 합니다.");
+			}
+			if(offset + length > upload.size) {
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "조각이 첨부 크기를 넘습니다.");
+			}
+			upload.lastAccess = System.currentTimeMillis();
+			MessageDigest digest = sha256();
+			//요청 바디를 버퍼 크기씩 읽어서 해당 위치에 바로 기록
+			try (FileChannel channel = FileChannel.open(upload.spool, StandardOpenOption.WRITE)) {
+				ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+				byte[] array = buffer.array();
+				long position = offset;
+				long remaining = length;
+				while(remaining > 0) {
+					int read = is.read(array, 0, (int) Math.min(array.length, remaining));
+					if(read == -1) {
+						throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "조각이 중간에 끊겼습니다.");
+					}
+					digest.update(array, 0, read);
+					buffer.clear().limit(read);
+					while(buffer.hasRemaining()) {
+						position += channel.write(buffer, position);
+					}
+					remaining -= read;
+				}
+			}
+			if(!HexFormat.of().formatHex(digest.digest()).equalsIgnoreCase(sha256)) {
+				checksumFailures.increment();
+				throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "조각의 SHA-256이 일치하지 않습니다.");
+			}
+			upload.offset = Math.max(upload.offset, offset + length);
+			upload.lastAccess = System.currentTimeMillis();
+			chunks.increment();
+			bytes.add(length);
+			return upload.offset;
+		}
+	}
+
+	//완료 처리 시작: 모든 데이터를 받았는지 확인하고 임시 파일을 읽는 스트림을 리턴
+	//완료 처리가 끝나면 반드시 finishComplete를 호출해야 함
+	public InputStream beginComplete(Upload upload) throws IOException {
+		synchronized(upload) {
+			if(upload.completing || uploads.get(upload.uploadId) != upload) {
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "완료되었거나 취소된 업로드입니다.");
+			}
+			if(upload.offset != upload.size) {
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "아직 " + upload.offset + "/" + upload.size + "바이트만 받았습니다.");
+			}
+			upload.completing = true;
+			return Files.newInputStream(upload.spool);
+		}
+	}
+
+	//완료 처리 끝: 첨부가 저장되었으면 세션과 임시 파일을 삭제하고, 실패했으면 다시 완료할 수 있도록 둠
+	public void finishComplete(Upload upload, boolean stored) {
+		synchronized(upload) {
+			upload.completing = false;
+			upload.lastAccess = System.currentTimeMillis();
+			if(stored) {
+				remove(upload);
+				completed.increment();
+			}
+		}
+	}
+
+	//업로드 취소
+	public void cancel(Upload upload) {
+		synchronized(upload) {
+			if(upload.completing) {
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "완료 처리 중인 업로드입니다.");
+			}
+			remove(upload);
+		}
+	}
+
+	//battach.upload.expire 동안 조각이 오지 않은 세션 삭제
+	@Scheduled(fixedDelayString = "${battach.upload.cleanup-interval:60000}")
+	public void expire() {
+		long deadline = System.currentTimeMillis() - expireMillis;
+		for(Upload upload : uploads.values()) {
+			//조각을 받는 중인 세션은 lastAccess가 갱신되어 있으므로 잠금을 기다리지 않음 (스케줄러 스레드를 막지 않음)
+			if(upload.lastAccess >= deadline) {
+				continue;
+			}
+			synchronized(upload) {
+				if(!upload.completing && upload.lastAccess < deadline) {
+					remove(upload);
+					expired.increment();
+					log.info("만료된 업로드 삭제: " + upload.uploadId + " (" + upload.offset + "/" + upload.size + ")");
+				}
+			}
+		}
+	}
+
+	private void remove(Upload upload) {
+		uploads.remove(upload.uploadId, upload);
+		try {
+			Files.deleteIfExists(upload.spool);
+		} catch (IOException e) {
+			log.error("업로드 임시 파일 삭제 실패: " + upload.spool, e);
+		}
+	}
+
+	public long getMaxChunkSize() {
+		return maxChunkSize;
+	}
+
+	public Map<String, Object> getStats() {
+		long spoolBytes = 0;
+		for(Upload upload : uploads.values()) {
+			spoolBytes += upload.offset;
+		}
+		Map<String, Object> map = new HashMap<>();
+		map.put("uploads", uploads.size());
+		map.put("maxUploads", maxUploads);
+		map.put("spoolBytes", spoolBytes);
+		map.put("initiated", initiated.sum());
+		map.put("chunks", chunks.sum());
+		map.put("bytes", bytes.sum());
+		map.put("checksumFailures", checksumFailures.sum());
+		map.put("completed", completed.sum());
+		map.put("expired", expired.sum());
+		return map;
+	}
+
+	private MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.mycompany.webapp.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.mycompany.webapp.dto.Battach;
+import com.mycompany.webapp.dto.BattachContent;
+import com.mycompany.webapp.dto.Board;
+import com.mycompany.webapp.service.BattachHandler;
+import com.mycompany.webapp.service.BoardService;
+
+//board.battachdata BLOB 컬럼에 첨부 데이터를 저장하는 저장소 (기본 저장소)
+@Component
+public class BlobBattachStore implements BattachStore {
+	//BLOB 스트림을 응답으로 복사할 때 사용하는 버퍼 크기 (첨부 크기와 상관없이 요청당 메모리 사용량이 일정함)
+	private static final int COPY_BUFFER_SIZE = 8192;
+	
+	@Autowired
+	private BoardService boardService;
+	
+	@Override
+	public void store(Board board, InputStream is, long length) throws IOException {
+		//insert/updateByBnoReturning 실행 시 스트림을 그대로 BLOB 컬럼에 바인딩
+		board.setBattachsname(null);
+		board.setBattachcontent(new BattachContent(is, length));
+	}
+
+	@Override
+	public long getSize(Battach battach) {
+		return battach.getBattachsize();
+	}
+
+	@Override
+	public void transfer(Battach battach, long start, long count, 
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
+		boardService.readBattachdata(battach.getBno(), data -> {
+			if(data.getBattachstream() == null) {
+				return;
+			}
+			OutputStream os = response.getOutputStream();
+			copyRange(data.getBattachstream(), os, start, count);
+			os.flush();
+		});
+	}
+	
+	@Override
+	public void read(Battach battach, BattachHandler handler) throws IOException {
+		boardService.readBattachdata(battach.getBno(), data -> {
+			if(data.getBattachstream() != null) {
+				handler.handle(data);
+			}
+		});
+	}
+	
+	//입력 스트림의 start 위치부터 count 바이트를 출력 스트림으로 복사
+	private void copyRange(InputStream is, OutputStream os, long start, long count) throws IOException {
+		is.skipNBytes(start);
+		byte[] buffer = new byte[COPY_BUFFER_SIZE];
+		while(count > 0) {
+			int read = is.read(buffer, 0, (int) Math.min(buffer.length, count));
+			if(read == -1) {
+				break;
+			}
+			os.write(buffer, 0, read);
+			count -= read;
+		}
+	}
+}
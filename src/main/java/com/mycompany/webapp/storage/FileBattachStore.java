@@ -0,0 +1,298 @@
+package com.mycompany.webapp.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mycompany.webapp.dao.BoardDao;
+import com.mycompany.webapp.dto.Battach;
+import com.mycompany.webapp.dto.Board;
+import com.mycompany.webapp.service.BattachHandler;
+
+import lombok.extern.slf4j.Slf4j;
+
+//첨부 데이터를 로컬 디렉토리에 SHA-256 해시 이름으로 저장하는 저장소
+//같은 내용의 파일은 한 번만 저장되고, 해시값은 board.battachsname 컬럼에 기록됨
+//파일은 DB 저장 전에 만들어지므로, 참조하는 게시물이 없는 파일은 다음 두 경우에 삭제함
+//- 게시물 저장 트랜잭션이 롤백되었거나 저장할 게시물이 없었을 때 (bindToTransaction, discardAfterCompletion)
+//- battach.store.file.cleanup-interval 마다 cleanup-grace 보다 오래된 파일 중 참조하는 게시물이 없는 파일 (삭제, 첨부 교체 후 남은 파일)
+//저장 후 트랜잭션이 끝나지 않은 파일(lease)과 최근에 저장된 파일(수정 시각)은 지우지 않음
+//(같은 내용을 올리는 다른 요청이 이 파일을 재사용하고 아직 커밋하지 않았을 수 있음)
+@Slf4j
+@Component
+public class FileBattachStore implements BattachStore {
+	//Tomcat의 sendfile 지원 여부와 sendfile 요청을 위한 요청 속성 이름
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+	
+	private static final String TEMP_PREFIX = "upload";
+	private static final String TEMP_SUFFIX = ".tmp";
+	
+	//저장했지만 아직 트랜잭션이 끝나지 않은 파일 (lease 객체로 동기화, 파일 생성/재사용/삭제도 이 잠금 안에서 함)
+	private static class Lease {
+		private int count;
+		private long lastStored;
+	}
+	
+	@Autowired
+	private BoardDao boardDao;
+	
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	
+	private final Path baseDir;
+	private final long cleanupGrace;
+	private final Map<String, Lease> leases = new HashMap<>();
+	
+	public FileBattachStore(
+			@Value("${battach.store.file.dir:battach}") String dir,
+			@Value("${battach.store.file.cleanup-grace:3600000}") long cleanupGrace) {
+		baseDir = Paths.get(dir).toAbsolutePath().normalize();
+		this.cleanupGrace = cleanupGrace;
+	}
+	
+	@Override
+	public void store(Board board, InputStream is, long length) throws IOException {
+		Files.createDirectories(baseDir);
+		//임시 파일에 저장하면서 SHA-256 해시를 계산
+		Path tempFile = Files.createTempFile(baseDir, TEMP_PREFIX, TEMP_SUFFIX);
+		try (DigestInputStream dis = new DigestInputStream(is, sha256())) {
+			Files.copy(dis, tempFile, StandardCopyOption.REPLACE_EXISTING);
+			String hash = HexFormat.of().formatHex(dis.getMessageDigest().digest());
+			Path target = resolve(hash);
+			Files.createDirectories(target.getParent());
+			long now = System.currentTimeMillis();
+			synchronized(leases) {
+				//같은 내용의 파일이 이미 있으면 새로 저장하지 않음 (중복 제거)
+				//수정 시각을 갱신해서 주기 정리에서 최근 파일로 보이게 함
+				if(Files.exists(target)) {
+					log.info("이미 저장된 첨부: " + hash);
+					Files.setLastModifiedTime(target, FileTime.fromMillis(now));
+				} else {
+					Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+				}
+				Lease lease = leases.computeIfAbsent(hash, key -> new Lease());
+				lease.count++;
+				lease.lastStored = now;
+			}
+			board.setBattachsname(hash);
+			board.setBattachcontent(null);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	@Override
+	public long getSize(Battach battach) throws IOException {
+		return Files.size(resolve(battach.getBattachsname()));
+	}
+
+	@Override
+	public void transfer(Battach battach, long start, long count, 
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
+		Path path = resolve(battach.getBattachsname());
+		//Tomcat이 sendfile을 지원하면 파일 전송을 컨테이너에 맡김 (데이터가 자바 힙을 거치지 않음)
+		if(Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			request.setAttribute(SENDFILE_FILENAME, path.toString());
+			request.setAttribute(SENDFILE_START, start);
+			request.setAttribute(SENDFILE_END, start + count);
+			return;
+		}
+		//sendfile을 지원하지 않으면 FileChannel.transferTo로 전송
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = start;
+			long remaining = count;
+			while(remaining > 0) {
+				long transferred = channel.transferTo(position, remaining, out);
+				if(transferred <= 0) {
+					break;
+				}
+				position += transferred;
+				remaining -= transferred;
+			}
+		}
+	}
+	
+	@Override
+	public void read(Battach battach, BattachHandler handler) throws IOException {
+		try (InputStream is = Files.newInputStream(resolve(battach.getBattachsname()))) {
+			battach.setBattachstream(is);
+			handler.handle(battach);
+		} finally {
+			battach.setBattachstream(null);
+		}
+	}
+	
+	//store로 저장한 파일을 현재 트랜잭션과 연결
+	//트랜잭션이 끝나면 lease를 반납하고, 롤백되었으면 참조하는 게시물이 없을 때 파일 삭제
+	//트랜잭션 밖에서 호출하면 바로 반납
+	public void bindToTransaction(String hash) {
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			release(hash);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				release(hash);
+				if(status == STATUS_ROLLED_BACK) {
+					deleteIfUnreferenced(hash);
+				}
+			}
+		});
+	}
+	
+	//현재 트랜잭션이 끝난 뒤 참조하는 게시물이 없으면 파일 삭제 (저장할 게시물이 없었던 경우)
+	//bindToTransaction 이후에 호출해야 함 (lease가 반납된 뒤에 삭제 여부를 확인)
+	public void discardAfterCompletion(String hash) {
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			deleteIfUnreferenced(hash);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				deleteIfUnreferenced(hash);
+			}
+		});
+	}
+	
+	//트랜잭션 없이 저장한 파일을 버림 (게시물 저장 전에 실패한 경우)
+	public void discard(String hash) {
+		release(hash);
+		deleteIfUnreferenced(hash);
+	}
+	
+	//store로 저장한 파일의 lease 반납 (트랜잭션 밖에서 게시물 저장이 끝난 경우)
+	public void release(String hash) {
+		synchronized(leases) {
+			Lease lease = leases.get(hash);
+			if(lease != null && --lease.count <= 0) {
+				leases.remove(hash);
+			}
+		}
+	}
+	
+	//참조하는 게시물이 없고, 진행 중인 저장이 없고, 확인한 뒤에 다시 저장되지 않은 파일이면 삭제
+	//참조 확인은 잠금 밖에서 primary로 조회 (복제 지연으로 방금 커밋된 참조를 놓치지 않도록 트랜잭션 없이 실행)
+	private boolean deleteIfUnreferenced(String hash) {
+		try {
+			Path path = resolve(hash);
+			long checkedAt = System.currentTimeMillis();
+			if(boardDao.countByBattachsname(hash) > 0) {
+				return false;
+			}
+			synchronized(leases) {
+				if(leases.containsKey(hash) || !Files.exists(path) 
+						|| Files.getLastModifiedTime(path).toMillis() >= checkedAt) {
+					return false;
+				}
+				Files.delete(path);
+			}
+			log.info("참조하는 게시물이 없는 첨부 삭제: " + hash);
+			return true;
+		} catch(IOException | RuntimeException e) {
+			log.error("첨부 삭제 실패: " + hash, e);
+			return false;
+		}
+	}
+	
+	//참조하는 게시물이 없는 오래된 파일과 남은 임시 파일 정리
+	//참조하는 해시 목록은 커서로 한 번만 읽고, 목록에 없는 파일만 deleteIfUnreferenced로 다시 확인
+	@Scheduled(fixedDelayString = "${battach.store.file.cleanup-interval:3600000}", 
+			initialDelayString = "${battach.store.file.cleanup-interval:3600000}")
+	public void cleanup() throws IOException {
+		if(!Files.isDirectory(baseDir)) {
+			return;
+		}
+		long deadline = System.currentTimeMillis() - cleanupGrace;
+		synchronized(leases) {
+			//트랜잭션이 끝나지 않고 남은 lease (게시물 저장 전에 실패한 요청 등)
+			leases.values().removeIf(lease -> lease.lastStored < deadline);
+		}
+		Set<String> referenced = new HashSet<>();
+		transactionTemplate.executeWithoutResult(status -> {
+			try (Cursor<String> cursor = boardDao.selectBattachsnames()) {
+				cursor.forEach(referenced::add);
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		int deleted = 0;
+		//해시 앞 두 글자 디렉토리만 확인 (같은 디렉토리 아래의 썸네일, 업로드 임시 파일 등은 제외)
+		try (DirectoryStream<Path> dirs = Files.newDirectoryStream(baseDir, 
+				dir -> Files.isDirectory(dir) && dir.getFileName().toString().matches("[0-9a-f]{2}"))) {
+			for(Path dir : dirs) {
+				try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+					for(Path file : files) {
+						String hash = file.getFileName().toString();
+						if(hash.matches("[0-9a-f]{64}") && !referenced.contains(hash) 
+								&& Files.getLastModifiedTime(file).toMillis() < deadline && deleteIfUnreferenced(hash)) {
+							deleted++;
+						}
+					}
+				}
+			}
+		}
+		//저장 도중 서버가 중지되어 남은 임시 파일
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(baseDir, TEMP_PREFIX + "*" + TEMP_SUFFIX)) {
+			for(Path file : files) {
+				if(Files.getLastModifiedTime(file).toMillis() < deadline) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+		if(deleted > 0) {
+			log.info("첨부 파일 정리: " + deleted + "개 삭제");
+		}
+	}
+	
+	//해시값으로 파일 경로 얻기 (디렉토리 하나에 파일이 몰리지 않도록 앞 두 글자로 하위 디렉토리를 나눔)
+	private Path resolve(String hash) throws IOException {
+		if(hash == null || !hash.matches("[0-9a-f]{64}")) {
+			throw new IOException("잘못된 첨부 저장 이름: " + hash);
+		}
+		return baseDir.resolve(hash.substring(0, 2)).resolve(hash);
+	}
+	
+	private MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
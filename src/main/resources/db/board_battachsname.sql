@@ -0,0 +1,3 @@
+-- 파일 저장소(battach.store=file)의 첨부 파일을 참조하는 게시물을 찾을 때 사용
+-- (저장이 롤백되었을 때와 주기 정리에서 참조하는 게시물이 없는 파일인지 확인, null인 행은 색인되지 않으므로 크기가 작음)
+create index idx_board_battachsname on board (battachsname);
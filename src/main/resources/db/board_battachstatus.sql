@@ -0,0 +1,7 @@
+-- 첨부 백그라운드 저장(battach.async.enabled)을 위한 컬럼
+-- 필수: 게시물 조회, 저장, 수정 구문(board.xml)이 battach.async.enabled 값과 상관없이 이 컬럼을 사용함
+-- null: 저장됨, FAILED: 저장 실패, 그 외: 저장 중인 작업 ID (UUID)
+alter table board add (battachstatus varchar2(40));
+
+-- 저장 중인 작업을 찾을 때(서버 시작 시) 사용, null인 행은 색인되지 않으므로 크기가 작음
+create index idx_board_battachstatus on board (battachstatus);
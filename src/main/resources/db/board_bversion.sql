@@ -0,0 +1,4 @@
+-- 게시물 버전 (수정할 때마다 1 증가, 상세 조회의 ETag와 수정 시 If-Match 확인에 사용)
+-- 필수: 게시물 조회, 수정 구문(board.xml)이 항상 이 컬럼을 사용함
+-- 기본값이 있는 not null 컬럼 추가는 기존 행을 다시 쓰지 않음 (11g 이상)
+alter table board add (bversion number default 0 not null);
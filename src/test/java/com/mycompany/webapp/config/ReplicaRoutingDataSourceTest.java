@@ -0,0 +1,133 @@
+package com.mycompany.webapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+//DataSourceConfig가 만든 라우팅 DataSource를 두 개의 H2 DB(primary, replica)로 확인
+//각 DB의 node 테이블에는 자기 이름이 들어 있으므로 조회 결과로 어느 DB를 사용했는지 알 수 있음
+class ReplicaRoutingDataSourceTest {
+	private static final long STICKY_WINDOW = 200;
+	
+	private HikariDataSource primary;
+	private HikariDataSource replica;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate writeTransaction;
+	private TransactionTemplate readOnlyTransaction;
+
+	@BeforeEach
+	void setUp() {
+		primary = createDatabase("primary");
+		replica = createDatabase("replica");
+		DataSourceConfig config = new DataSourceConfig();
+		ReflectionTestUtils.setField(config, "stickyWindow", STICKY_WINDOW);
+		@SuppressWarnings("unchecked")
+		ObjectProvider<HikariDataSource> replicaProvider = mock(ObjectProvider.class);
+		when(replicaProvider.getIfAvailable()).thenReturn(replica);
+		DataSource dataSource = config.dataSource(primary, replicaProvider);
+		
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		writeTransaction = new TransactionTemplate(transactionManager);
+		readOnlyTransaction = new TransactionTemplate(transactionManager);
+		readOnlyTransaction.setReadOnly(true);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		primary.close();
+		replica.close();
+	}
+
+	@Test
+	void readOnlyTransactionUsesReplica() {
+		assertThat(nodeIn(readOnlyTransaction, this::node)).isEqualTo("replica");
+	}
+
+	@Test
+	void writeTransactionAndNoTransactionUsePrimary() {
+		assertThat(nodeIn(writeTransaction, this::node)).isEqualTo("primary");
+		assertThat(node()).isEqualTo("primary");
+	}
+
+	@Test
+	void userReadsOwnWritesFromPrimaryWithinStickyWindow() throws InterruptedException {
+		login("user1");
+		writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("update node set writes = writes + 1"));
+		assertThat(nodeIn(readOnlyTransaction, this::node)).isEqualTo("primary");
+		
+		//다른 사용자는 그대로 replica에서 읽음
+		login("user2");
+		assertThat(nodeIn(readOnlyTransaction, this::node)).isEqualTo("replica");
+		
+		//sticky-window가 지나면 다시 replica에서 읽음
+		Thread.sleep(STICKY_WINDOW * 2);
+		login("user1");
+		assertThat(nodeIn(readOnlyTransaction, this::node)).isEqualTo("replica");
+	}
+
+	@Test
+	void onPrimaryPinsReadOnlyTransactionWithoutMakingUserSticky() {
+		login("user1");
+		assertThat(nodeIn(readOnlyTransaction, () -> ReplicaRoutingDataSource.onPrimary(this::node))).isEqualTo("primary");
+		assertThat(nodeIn(readOnlyTransaction, this::node)).isEqualTo("replica");
+	}
+
+	@Test
+	void withoutReplicaConnectionIsAcquiredAtFirstStatement() {
+		DataSourceConfig config = new DataSourceConfig();
+		@SuppressWarnings("unchecked")
+		ObjectProvider<HikariDataSource> noReplica = mock(ObjectProvider.class);
+		DataSource dataSource = config.dataSource(primary, noReplica);
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		
+		transaction.executeWithoutResult(status -> {
+			//트랜잭션 시작만으로는 풀에서 커넥션을 꺼내지 않음
+			assertThat(primary.getHikariPoolMXBean().getActiveConnections()).isZero();
+			assertThat(template.queryForObject("select name from node", String.class)).isEqualTo("primary");
+			assertThat(primary.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+		});
+	}
+
+	private String nodeIn(TransactionTemplate transaction, Supplier<String> query) {
+		return transaction.execute(status -> query.get());
+	}
+
+	private String node() {
+		return jdbcTemplate.queryForObject("select name from node", String.class);
+	}
+
+	private void login(String mid) {
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(mid, null));
+	}
+
+	private HikariDataSource createDatabase(String name) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setPoolName(name);
+		dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + System.nanoTime());
+		dataSource.setMaximumPoolSize(2);
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		template.execute("create table node (name varchar(20), writes int)");
+		template.update("insert into node values (?, 0)", name);
+		return dataSource;
+	}
+}
@@ -0,0 +1,75 @@
+package com.mycompany.webapp.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+//BoardController의 헤더/토큰 처리 (DB 없이 실행)
+class BoardControllerTest {
+
+	@Test
+	void cursorRoundTrip() {
+		for(int bno : new int[] {0, 1, 42, Integer.MAX_VALUE}) {
+			String cursor = BoardController.encodeCursor(bno);
+			//URL에 그대로 넣을 수 있는 문자만 사용
+			assertThat(cursor).matches("[A-Za-z0-9_-]+");
+			assertThat(BoardController.decodeCursor(cursor)).isEqualTo(bno);
+		}
+	}
+
+	@Test
+	void invalidCursorIsBadRequest() {
+		String notBno = Base64.getUrlEncoder().withoutPadding().encodeToString("id:3".getBytes(StandardCharsets.UTF_8));
+		String notNumber = Base64.getUrlEncoder().withoutPadding().encodeToString("bno:x".getBytes(StandardCharsets.UTF_8));
+		for(String cursor : new String[] {"!!!", notBno, notNumber}) {
+			assertThatThrownBy(() -> BoardController.decodeCursor(cursor))
+					.isInstanceOfSatisfying(ResponseStatusException.class, 
+							e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+		}
+	}
+
+	@Test
+	void acceptsGzip() {
+		assertThat(BoardController.acceptsGzip("gzip")).isTrue();
+		assertThat(BoardController.acceptsGzip("deflate, GZIP;q=0.5, br")).isTrue();
+		assertThat(BoardController.acceptsGzip("gzip;q=1.0")).isTrue();
+		assertThat(BoardController.acceptsGzip("gzip;q=0.001")).isTrue();
+	}
+
+	@Test
+	void rejectsMissingOrRefusedGzip() {
+		assertThat(BoardController.acceptsGzip(null)).isFalse();
+		assertThat(BoardController.acceptsGzip("")).isFalse();
+		assertThat(BoardController.acceptsGzip("deflate, br")).isFalse();
+		assertThat(BoardController.acceptsGzip("x-gzip")).isFalse();
+		//q=0 은 받지 않겠다는 뜻
+		assertThat(BoardController.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(BoardController.acceptsGzip("br, gzip; q=0.000")).isFalse();
+	}
+
+	@Test
+	void parseIfMatchReadsVersionOfThisPost() {
+		assertThat(BoardController.parseIfMatch(null, 5)).isNull();
+		assertThat(BoardController.parseIfMatch("*", 5)).isNull();
+		assertThat(BoardController.parseIfMatch(" * ", 5)).isNull();
+		assertThat(BoardController.parseIfMatch("\"5-3\"", 5)).isEqualTo(3);
+		//여러 ETag 중 이 게시물의 것을 사용
+		assertThat(BoardController.parseIfMatch("\"4-9\", \"5-12\"", 5)).isEqualTo(12);
+	}
+
+	@Test
+	void parseIfMatchRejectsOtherOrMalformedTags() {
+		for(String ifMatch : new String[] {"\"4-3\"", "\"55-3\"", "\"5-\"", "\"5-x\"", "5-3", "W/\"5-3\"", ""}) {
+			assertThatThrownBy(() -> BoardController.parseIfMatch(ifMatch, 5))
+					.as(ifMatch)
+					.isInstanceOfSatisfying(ResponseStatusException.class, 
+							e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.PRECONDITION_FAILED));
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.mycompany.webapp.dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+	@Test
+	void smallValuesHaveOneMicrosecondBuckets() {
+		for(long micros = 0; micros < 16; micros++) {
+			assertThat(LatencyHistogram.bucketOf(micros)).isEqualTo((int) micros);
+			assertThat(LatencyHistogram.upperBoundOf((int) micros)).isEqualTo(micros);
+		}
+	}
+
+	@Test
+	void everyValueFallsInsideItsBucketWithinRelativeError() {
+		int previous = -1;
+		for(long micros = 0; micros < 1L << 32; micros = micros < 4096 ? micros + 1 : micros + micros / 97) {
+			int bucket = LatencyHistogram.bucketOf(micros);
+			long upper = LatencyHistogram.upperBoundOf(bucket);
+			//구간은 값이 커질수록 같거나 커지고, 값은 구간의 (이전 구간 상한, 상한] 안에 있음
+			assertThat(bucket).isGreaterThanOrEqualTo(previous);
+			assertThat(upper).isGreaterThanOrEqualTo(micros);
+			if(bucket > 0) {
+				assertThat(LatencyHistogram.upperBoundOf(bucket - 1)).isLessThan(micros);
+			}
+			assertThat((double) (upper - micros)).isLessThanOrEqualTo(micros * 0.125);
+			previous = bucket;
+		}
+	}
+
+	@Test
+	void bucketsAreContiguous() {
+		for(int bucket = 1; bucket < LatencyHistogram.bucketOf(Long.MAX_VALUE); bucket++) {
+			long lower = LatencyHistogram.upperBoundOf(bucket - 1) + 1;
+			assertThat(LatencyHistogram.bucketOf(lower)).isEqualTo(bucket);
+			assertThat(LatencyHistogram.bucketOf(LatencyHistogram.upperBoundOf(bucket))).isEqualTo(bucket);
+		}
+	}
+
+	@Test
+	void hugeValuesGoToLastBucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.record(Long.MAX_VALUE);
+		assertThat(histogram.getCount()).isEqualTo(1);
+		assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.bucketOf(1L << 40));
+	}
+
+	@Test
+	void emptyHistogramReportsZeros() {
+		Map<String, Object> stats = new LatencyHistogram().getStats();
+		assertThat(stats).containsEntry("count", 0L).containsEntry("p50Millis", 0.0).containsEntry("maxMillis", 0.0);
+	}
+
+	@Test
+	void percentilesUseUpperBoundOfRankBucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		//1ms ~ 1000ms 를 한 번씩
+		for(int millis = 1; millis <= 1000; millis++) {
+			histogram.record(millis * 1_000_000L);
+		}
+		Map<String, Object> stats = histogram.getStats();
+		assertThat(stats.get("count")).isEqualTo(1000L);
+		assertThat((double) stats.get("avgMillis")).isCloseTo(500.5, within(0.001));
+		assertThat((double) stats.get("p50Millis")).isBetween(500.0, 500 * 1.125);
+		assertThat((double) stats.get("p99Millis")).isBetween(990.0, 990 * 1.125);
+		assertThat((double) stats.get("p999Millis")).isBetween(999.0, 999 * 1.125);
+		assertThat((double) stats.get("maxMillis")).isBetween(1000.0, 1000 * 1.125);
+		assertThat((double) stats.get("p50Millis")).isEqualTo(LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(500_000)) / 1000.0);
+	}
+
+	@Test
+	void singleSlowRequestOnlyMovesTheTail() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for(int i = 0; i < 999; i++) {
+			histogram.record(2_000_000L);
+		}
+		histogram.record(3_000_000_000L);
+		Map<String, Object> stats = histogram.getStats();
+		assertThat((double) stats.get("p50Millis")).isBetween(2.0, 2 * 1.125);
+		assertThat((double) stats.get("p99Millis")).isBetween(2.0, 2 * 1.125);
+		assertThat((double) stats.get("maxMillis")).isBetween(3000.0, 3000 * 1.125);
+	}
+}
@@ -0,0 +1,109 @@
+package com.mycompany.webapp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mycompany.webapp.dao.BoardDao;
+import com.mycompany.webapp.dto.Board;
+import com.mycompany.webapp.service.BoardBatchInsertEvent;
+import com.mycompany.webapp.service.BoardChangeEvent;
+import com.mycompany.webapp.service.BoardService;
+
+class BoardSearchIndexTest {
+
+	@Test
+	void unionMergesSortedArraysWithoutDuplicates() {
+		assertThat(BoardSearchIndex.union(new int[] {1, 3, 5}, new int[] {2, 3, 6})).containsExactly(1, 2, 3, 5, 6);
+		assertThat(BoardSearchIndex.union(new int[0], new int[] {4})).containsExactly(4);
+		assertThat(BoardSearchIndex.union(new int[0], new int[0])).isEmpty();
+	}
+
+	@Test
+	void intersectKeepsCommonValues() {
+		assertThat(BoardSearchIndex.intersect(new int[] {1, 3, 5, 7}, new int[] {3, 4, 7, 9})).containsExactly(3, 7);
+		assertThat(BoardSearchIndex.intersect(new int[] {1, 2}, new int[] {3, 4})).isEmpty();
+		assertThat(BoardSearchIndex.intersect(new int[0], new int[] {1})).isEmpty();
+	}
+
+	@Test
+	void rebuildAndSearchRanksTitleMatchesFirst() throws InterruptedException {
+		BoardSearchIndex index = createIndex(List.of(
+				board(1, "스프링 부트", "게시판 검색 예제"),
+				board(2, "게시판 검색", "스프링"),
+				board(3, "공지", "게시판 점검"),
+				board(4, "검색 엔진", "java")));
+		index.rebuild();
+		ReflectionTestUtils.invokeMethod(index, "destroy");
+
+		//제목 일치(2점)가 내용 일치(1점)보다 먼저, 같은 점수는 bno 큰 순
+		assertThat(index.search("게시판", false, 10)).containsExactly(2, 3, 1);
+		//"스프링"은 스프, 프링 두 토큰이므로 1번(제목 스프링 4점 + 내용 검색 1점)이 2번(제목 검색 2점 + 내용 스프링 2점)보다 높음
+		assertThat(index.search("스프링 검색", true, 10)).containsExactly(1, 2);
+		assertThat(index.search("스프링 검색", false, 10)).containsExactly(1, 2, 4);
+		assertThat(index.search("스프링 검색", false, 1)).containsExactly(1);
+		assertThat(index.search("없는단어", false, 10)).isEmpty();
+		assertThat(index.search("!!", false, 10)).isEmpty();
+	}
+
+	@Test
+	void boardChangesUpdateTheIndex() throws InterruptedException {
+		BoardDao boardDao = mock(BoardDao.class);
+		BoardSearchIndex index = createIndex(List.of(board(1, "자바", "내용"), board(2, "자바 스프링", "내용")));
+		ReflectionTestUtils.setField(index, "boardDao", boardDao);
+		when(boardDao.selectByBno(1)).thenReturn(board(1, "파이썬", "내용"));
+		when(boardDao.selectByBno(3)).thenReturn(board(3, "자바", "새 글"));
+		index.rebuild();
+		index.onBoardChange(new BoardChangeEvent(1, BoardChangeEvent.Operation.UPDATE));
+		index.onBoardChange(new BoardChangeEvent(2, BoardChangeEvent.Operation.DELETE));
+		index.onBoardChange(new BoardChangeEvent(3, BoardChangeEvent.Operation.INSERT));
+		ReflectionTestUtils.invokeMethod(index, "destroy");
+
+		assertThat(index.search("자바", false, 10)).containsExactly(3);
+		assertThat(index.search("파이썬", false, 10)).containsExactly(1);
+		assertThat(index.search("스프링", false, 10)).isEmpty();
+	}
+
+	@Test
+	void batchInsertIsIndexedWithoutReadingRows() throws InterruptedException {
+		BoardDao boardDao = mock(BoardDao.class);
+		BoardSearchIndex index = createIndex(List.of(board(1, "자바", "내용")));
+		ReflectionTestUtils.setField(index, "boardDao", boardDao);
+		index.rebuild();
+		index.onBoardBatchInsert(new BoardBatchInsertEvent(List.of(board(2, "자바 배치", "내용"), board(3, "배치", "자바"))));
+		ReflectionTestUtils.invokeMethod(index, "destroy");
+
+		assertThat(index.search("자바", false, 10)).containsExactly(2, 1, 3);
+		assertThat(index.search("배치", false, 10)).containsExactly(3, 2);
+		verifyNoInteractions(boardDao);
+	}
+
+	@SuppressWarnings("unchecked")
+	private BoardSearchIndex createIndex(List<Board> boards) {
+		BoardService boardService = mock(BoardService.class);
+		doAnswer(invocation -> {
+			boards.forEach(invocation.getArgument(0, Consumer.class));
+			return null;
+		}).when(boardService).scanBoards(any());
+		BoardSearchIndex index = new BoardSearchIndex();
+		ReflectionTestUtils.setField(index, "boardService", boardService);
+		return index;
+	}
+
+	private Board board(int bno, String btitle, String bcontent) {
+		Board board = new Board();
+		board.setBno(bno);
+		board.setBtitle(btitle);
+		board.setBcontent(bcontent);
+		return board;
+	}
+}
@@ -0,0 +1,39 @@
+package com.mycompany.webapp.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class BoardTokenizerTest {
+
+	@Test
+	void splitsHangulIntoBigrams() {
+		assertThat(BoardTokenizer.tokenize("게시판검색")).containsExactly("게시", "시판", "판검", "검색");
+	}
+
+	@Test
+	void keepsSingleHangulSyllable() {
+		assertThat(BoardTokenizer.tokenize("이 글")).containsExactly("이", "글");
+	}
+
+	@Test
+	void lowercasesLatinWordsAndSplitsOnSymbols() {
+		assertThat(BoardTokenizer.tokenize("Spring-Boot 2.7, JWT!")).containsExactly("spring", "boot", "2", "7", "jwt");
+	}
+
+	@Test
+	void splitsMixedHangulAndLatin() {
+		assertThat(BoardTokenizer.tokenize("JWT토큰")).containsExactly("jwt", "토큰");
+	}
+
+	@Test
+	void removesDuplicatesInOrder() {
+		assertThat(BoardTokenizer.tokenize("검색 Java 검색 JAVA")).containsExactly("검색", "java");
+	}
+
+	@Test
+	void emptyForNullOrSymbols() {
+		assertThat(BoardTokenizer.tokenize(null)).isEmpty();
+		assertThat(BoardTokenizer.tokenize(" ... !? ")).isEmpty();
+	}
+}
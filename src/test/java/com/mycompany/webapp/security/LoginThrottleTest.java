@@ -0,0 +1,72 @@
+package com.mycompany.webapp.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class LoginThrottleTest {
+	private LoginThrottle throttle;
+
+	@BeforeEach
+	void setUp() {
+		throttle = new LoginThrottle();
+		ReflectionTestUtils.setField(throttle, "maxFailuresPerUser", 3);
+		ReflectionTestUtils.setField(throttle, "lockDuration", 60000L);
+	}
+
+	@Test
+	void blocksUserFromSameIpAfterMaxFailures() {
+		for(int i = 0; i < 2; i++) {
+			throttle.recordFailure("user1", "10.0.0.1");
+		}
+		assertThat(throttle.isBlocked("user1", "10.0.0.1")).isFalse();
+		throttle.recordFailure("user1", "10.0.0.1");
+		assertThat(throttle.isBlocked("user1", "10.0.0.1")).isTrue();
+	}
+
+	@Test
+	void failuresFromOtherIpDoNotLockUser() {
+		for(int i = 0; i < 3; i++) {
+			throttle.recordFailure("user1", "10.0.0.66");
+		}
+		assertThat(throttle.isBlocked("user1", "10.0.0.66")).isTrue();
+		assertThat(throttle.isBlocked("user1", "10.0.0.1")).isFalse();
+	}
+
+	@Test
+	void failuresOnOtherUsersDoNotLockSharedIp() {
+		//공유 NAT 뒤에서 여러 아이디로 실패해도 같은 IP의 다른 사용자는 잠기지 않음
+		for(int i = 0; i < 50; i++) {
+			throttle.recordFailure("user" + i, "10.0.0.66");
+		}
+		assertThat(throttle.isBlocked("other", "10.0.0.66")).isFalse();
+		assertThat(throttle.isBlocked("user1", "10.0.0.66")).isFalse();
+	}
+
+	@Test
+	void successClearsUserFailuresOnly() {
+		for(int i = 0; i < 3; i++) {
+			throttle.recordFailure("user1", "10.0.0.1");
+			throttle.recordFailure("user2", "10.0.0.1");
+		}
+		throttle.recordSuccess("user1", "10.0.0.1");
+		assertThat(throttle.isBlocked("user1", "10.0.0.1")).isFalse();
+		assertThat(throttle.isBlocked("user2", "10.0.0.1")).isTrue();
+	}
+
+	@Test
+	void unblocksAfterLockDuration() throws InterruptedException {
+		ReflectionTestUtils.setField(throttle, "lockDuration", 50L);
+		for(int i = 0; i < 3; i++) {
+			throttle.recordFailure("user1", "10.0.0.1");
+		}
+		assertThat(throttle.isBlocked("user1", "10.0.0.1")).isTrue();
+		Thread.sleep(100);
+		assertThat(throttle.isBlocked("user1", "10.0.0.1")).isFalse();
+		//새 구간에서는 다시 1부터 셈
+		throttle.recordFailure("user1", "10.0.0.1");
+		assertThat(throttle.isBlocked("user1", "10.0.0.1")).isFalse();
+	}
+}
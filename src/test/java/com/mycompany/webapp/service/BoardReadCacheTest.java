@@ -0,0 +1,88 @@
+package com.mycompany.webapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mycompany.webapp.dto.Board;
+
+//캐시된 JSON에 조회수를 끼워 넣는 처리 (DB 없이 실행)
+class BoardReadCacheTest {
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private BoardReadCache cache;
+
+	@BeforeEach
+	void setUp() {
+		cache = new BoardReadCache(10);
+		ReflectionTestUtils.setField(cache, "objectMapper", objectMapper);
+		ReflectionTestUtils.setField(cache, "maxEntrySize", 262144);
+	}
+
+	private Board board(int bno, String btitle, int bhitcount) {
+		Board board = new Board();
+		board.setBno(bno);
+		board.setBtitle(btitle);
+		board.setBcontent("내용 " + bno);
+		board.setBwriter("user1");
+		board.setBhitcount(bhitcount);
+		board.setBversion(3);
+		return board;
+	}
+
+	@Test
+	void splicesPendingHitcount() throws Exception {
+		Board board = board(1, "제목", 7);
+		BoardReadCache.Entry entry = cache.put(1, cache.getGeneration(), board);
+
+		ObjectNode expected = objectMapper.valueToTree(board);
+		expected.put("bhitcount", 10);
+		assertThat(objectMapper.readTree(entry.toJson(3))).isEqualTo(expected);
+		assertThat(entry.getBversion()).isEqualTo(3);
+		assertThat(cache.get(1)).isSameAs(entry);
+	}
+
+	@Test
+	void hitcountDigitsChangeLength() throws Exception {
+		BoardReadCache.Entry entry = cache.put(1, cache.getGeneration(), board(1, "제목", 9));
+		//자릿수가 바뀌어도 앞/뒤 JSON은 그대로
+		assertThat(objectMapper.readTree(entry.toJson(0)).get("bhitcount").asLong()).isEqualTo(9);
+		assertThat(objectMapper.readTree(entry.toJson(1)).get("bhitcount").asLong()).isEqualTo(10);
+		assertThat(objectMapper.readTree(entry.toJson(123456)).get("bhitcount").asLong()).isEqualTo(123465);
+		assertThat(objectMapper.readTree(entry.toJson(1)).get("btitle").asText()).isEqualTo("제목");
+	}
+
+	@Test
+	void fieldNameInsideTextIsNotReplaced() throws Exception {
+		String btitle = "\"bhitcount\":99 제목";
+		BoardReadCache.Entry entry = cache.put(1, cache.getGeneration(), board(1, btitle, 5));
+		JsonNode json = objectMapper.readTree(entry.toJson(2));
+		assertThat(json.get("btitle").asText()).isEqualTo(btitle);
+		assertThat(json.get("bhitcount").asInt()).isEqualTo(7);
+	}
+
+	@Test
+	void addHitcountMovesFlushedCountIntoEntry() throws Exception {
+		cache.put(1, cache.getGeneration(), board(1, "제목", 5));
+		//DB에 4가 반영되면 pending이 4 줄어드므로 합계는 그대로
+		cache.addHitcount(1, 4);
+		assertThat(objectMapper.readTree(cache.get(1).toJson(0)).get("bhitcount").asInt()).isEqualTo(9);
+		//캐시에 없는 게시물은 무시
+		cache.addHitcount(2, 4);
+		assertThat(cache.get(2)).isNull();
+	}
+
+	@Test
+	void readDuringChangeIsNotCached() {
+		long generation = cache.getGeneration();
+		cache.addHitcount(1, 1);
+		BoardReadCache.Entry entry = cache.put(1, generation, board(1, "제목", 5));
+		//응답에는 쓸 수 있지만 캐시에는 저장되지 않음
+		assertThat(entry.toJson(0)).isNotEmpty();
+		assertThat(cache.get(1)).isNull();
+	}
+}
@@ -0,0 +1,156 @@
+package com.mycompany.webapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mycompany.webapp.dao.BoardDao;
+import com.mycompany.webapp.dto.BattachContent;
+import com.mycompany.webapp.dto.Board;
+import com.mycompany.webapp.storage.FileBattachStore;
+
+//게시물 수정: RETURNING 결과와 첨부 저장(별도 UPDATE)을 합치는 처리 (DB 없이 실행)
+class BoardServiceUpdateTest {
+	private final BoardDao boardDao = mock(BoardDao.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	private BoardService boardService;
+
+	@BeforeEach
+	void setUp() {
+		boardService = new BoardService();
+		ReflectionTestUtils.setField(boardService, "boardsDao", boardDao);
+		ReflectionTestUtils.setField(boardService, "hitCounter", mock(BoardHitCounter.class));
+		ReflectionTestUtils.setField(boardService, "eventPublisher", eventPublisher);
+		ReflectionTestUtils.setField(boardService, "fileBattachStore", mock(FileBattachStore.class));
+	}
+
+	//updateByBnoReturning의 OUT 파라미터를 채움 (rows 행이 수정된 것처럼)
+	@SuppressWarnings("unchecked")
+	private void returning(int rows) {
+		doAnswer(invocation -> {
+			Map<String, Object> params = invocation.getArgument(0);
+			//PL/SQL 블록에는 스칼라 값만 넘어감
+			assertThat(params).doesNotContainKeys("battachcontent", "battachoname");
+			params.put("rows", rows);
+			params.put("bwriter", "user1");
+			params.put("bdate", new Date(0));
+			params.put("bhitcount", 7);
+			params.put("battachoname", "old.txt");
+			params.put("battachtype", "text/plain");
+			params.put("battachsname", null);
+			params.put("battachstatus", null);
+			params.put("bversion", 4);
+			return 1;
+		}).when(boardDao).updateByBnoReturning(anyMap());
+	}
+
+	private Board board() {
+		Board board = new Board();
+		board.setBno(5);
+		board.setBtitle("제목");
+		board.setBcontent("내용");
+		return board;
+	}
+
+	@Test
+	void updateWithoutAttachmentUsesReturnedValues() {
+		returning(1);
+		Board updated = boardService.update(board(), 3);
+
+		assertThat(updated.getBtitle()).isEqualTo("제목");
+		assertThat(updated.getBwriter()).isEqualTo("user1");
+		assertThat(updated.getBhitcount()).isEqualTo(7);
+		assertThat(updated.getBattachoname()).isEqualTo("old.txt");
+		assertThat(updated.getBversion()).isEqualTo(4);
+		verify(boardDao, never()).updateBattachdataByBno(any());
+		//첨부는 바뀌지 않았으므로 썸네일을 다시 만들지 않음
+		verify(eventPublisher).publishEvent(argThat((Object event) -> 
+				event instanceof BoardChangeEvent && !((BoardChangeEvent) event).isBattachChanged()));
+	}
+
+	@Test
+	void attachmentIsWrittenByPlainUpdateAfterReturning() {
+		returning(1);
+		Board board = board();
+		board.setBattachoname("new.bin");
+		board.setBattachtype("application/octet-stream");
+		board.setBattachcontent(new BattachContent(new ByteArrayInputStream(new byte[] {1, 2, 3}), 3));
+		Board updated = boardService.update(board, null);
+
+		InOrder order = inOrder(boardDao);
+		order.verify(boardDao).updateByBnoReturning(anyMap());
+		order.verify(boardDao).updateBattachdataByBno(board);
+		assertThat(updated.getBattachoname()).isEqualTo("new.bin");
+		assertThat(updated.getBattachtype()).isEqualTo("application/octet-stream");
+		assertThat(updated.getBattachstatus()).isNull();
+		assertThat(updated.getBversion()).isEqualTo(4);
+		verify(eventPublisher).publishEvent(argThat((Object event) -> 
+				event instanceof BoardChangeEvent && ((BoardChangeEvent) event).isBattachChanged()));
+	}
+
+	@Test
+	void pendingAttachmentIsReportedAsPending() {
+		returning(1);
+		Board board = board();
+		board.setBattachoname("new.bin");
+		board.setBattachstatus("job-1");
+		assertThat(boardService.update(board, null).getBattachstatus()).isEqualTo("PENDING");
+	}
+
+	@Test
+	void withoutReturningUpdatedRowIsSelected() {
+		//H2: OUT 파라미터 없이 수정된 행 수만 리턴
+		when(boardDao.updateByBnoReturning(anyMap())).thenReturn(1);
+		Map<String, Object> row = new HashMap<>();
+		row.put("bwriter", "user1");
+		row.put("bdate", new Date(0));
+		row.put("bhitcount", 7);
+		row.put("battachoname", "old.txt");
+		row.put("battachtype", "text/plain");
+		row.put("battachsname", null);
+		row.put("battachstatus", null);
+		row.put("bversion", 4);
+		when(boardDao.selectUpdatedByBno(5)).thenReturn(row);
+		Board updated = boardService.update(board(), 3);
+
+		assertThat(updated.getBwriter()).isEqualTo("user1");
+		assertThat(updated.getBattachoname()).isEqualTo("old.txt");
+		assertThat(updated.getBversion()).isEqualTo(4);
+	}
+
+	@Test
+	void withoutReturningMissingPostIsNotSelected() {
+		when(boardDao.updateByBnoReturning(anyMap())).thenReturn(0);
+		assertThat(boardService.update(board(), 3)).isNull();
+		verify(boardDao, never()).selectUpdatedByBno(anyInt());
+	}
+
+	@Test
+	void missingOrChangedPostSkipsAttachment() {
+		returning(0);
+		Board board = board();
+		board.setBattachoname("new.bin");
+		assertThat(boardService.update(board, 3)).isNull();
+		verify(boardDao, never()).updateBattachdataByBno(any());
+		verify(eventPublisher, never()).publishEvent(any());
+	}
+}